@@ -0,0 +1,74 @@
+package net.backend.journalApp.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.backend.journalApp.cache.AppCache;
+import net.backend.journalApp.model.ConfigJournalAppModel;
+import net.backend.journalApp.repository.ConfigJournalAppRepository;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups in {@link AppCache} from several threads, against a snapshot loaded from a stubbed repository.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class AppCacheBenchmark {
+
+    private AppCache appCache;
+
+    @Setup
+    public void setup() {
+        List<ConfigJournalAppModel> settings = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            ConfigJournalAppModel setting = new ConfigJournalAppModel();
+            setting.setKey("setting." + i);
+            setting.setValue(Integer.toString(i));
+            setting.setUpdatedAt(LocalDateTime.now());
+            settings.add(setting);
+        }
+        ConfigJournalAppRepository repository = Mockito.mock(ConfigJournalAppRepository.class);
+        Mockito.when(repository.findAll()).thenReturn(settings);
+
+        appCache = new AppCache();
+        ReflectionTestUtils.setField(appCache, "configJournalAppRepository", repository);
+        ReflectionTestUtils.setField(appCache, "fullReloadEvery", 10);
+        ReflectionTestUtils.setField(appCache, "meterRegistry", new SimpleMeterRegistry());
+        appCache.init();
+    }
+
+    @Benchmark
+    public String getHit() {
+        return appCache.get("setting.42");
+    }
+
+    @Benchmark
+    public String getMiss() {
+        return appCache.get("missing.setting");
+    }
+
+    @Benchmark
+    public int getInt() {
+        return appCache.getInt("setting.42", 0);
+    }
+}
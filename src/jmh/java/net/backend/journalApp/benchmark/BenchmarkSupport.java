@@ -0,0 +1,36 @@
+package net.backend.journalApp.benchmark;
+
+import net.backend.journalApp.cache.UserVersionTable;
+import net.backend.journalApp.utils.JwtUtil;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+
+/**
+ * Builds application components outside a Spring context, with the same settings as application.properties.
+ */
+final class BenchmarkSupport {
+
+    // 512-bit Base64 secret, the same shape as `secret.api.key` in production.
+    static final String SECRET = Base64.getEncoder().encodeToString(new byte[64]);
+
+    private BenchmarkSupport() {
+    }
+
+    static JwtUtil jwtUtil(boolean selfContained, int verifiedCacheMaxSize) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "SECRET_KEY", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "selfContained", selfContained);
+        ReflectionTestUtils.setField(jwtUtil, "verifiedCacheMaxSize", verifiedCacheMaxSize);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+
+    static UserVersionTable userVersionTable() {
+        UserVersionTable table = new UserVersionTable();
+        ReflectionTestUtils.setField(table, "maxSize", 100000);
+        ReflectionTestUtils.setField(table, "tokenLifetimeMillis", 86400000L);
+        table.init();
+        return table;
+    }
+}
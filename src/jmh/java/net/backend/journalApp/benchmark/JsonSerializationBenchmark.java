@@ -0,0 +1,104 @@
+package net.backend.journalApp.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.backend.journalApp.model.ImageStatus;
+import net.backend.journalApp.model.JournalModel;
+import net.backend.journalApp.model.UserModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of journal and user lists, as written by the listing endpoints.
+ * The mapper is built with Spring's defaults (Java time support, ISO dates), like the application's.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"20", "100", "1000"})
+    private int listSize; // 20 is the default page size, 1000 an unpaginated user listing.
+
+    @Param({"2000"})
+    private int contentLength; // Characters of journal content.
+
+    private ObjectMapper objectMapper;
+
+    private List<JournalModel> journals;
+
+    private List<UserModel> users;
+
+    @Setup
+    public void setup() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        journals = new ArrayList<>(listSize);
+        users = new ArrayList<>(listSize);
+        for (int i = 0; i < listSize; i++) {
+            Map<String, String> variants = new HashMap<>();
+            variants.put("thumb", "https://res.cloudinary.com/demo/image/upload/w_320/sample" + i + ".jpg");
+            variants.put("medium", "https://res.cloudinary.com/demo/image/upload/w_1024/sample" + i + ".jpg");
+            journals.add(JournalModel.builder()
+                    .id(Integer.toHexString(random.nextInt()))
+                    .title("Journal entry " + i)
+                    .content(text(random, contentLength))
+                    .image_url("https://res.cloudinary.com/demo/image/upload/sample" + i + ".jpg")
+                    .image_variants(variants)
+                    .imageStatus(ImageStatus.READY)
+                    .journal_category("category-" + (i % 8))
+                    .ownerId(Integer.toHexString(random.nextInt()))
+                    .createdAt(LocalDateTime.now())
+                    .updatedAt(LocalDateTime.now())
+                    .build());
+
+            UserModel user = new UserModel();
+            user.setId(Integer.toHexString(random.nextInt()));
+            user.setUserName("user-" + i);
+            user.setPassword("$2a$10$" + text(random, 53));
+            user.setRoles(Arrays.asList("USER"));
+            user.setCreatedAt(LocalDateTime.now());
+            user.setUpdatedAt(LocalDateTime.now());
+            users.add(user);
+        }
+    }
+
+    @Benchmark
+    public byte[] journals() throws Exception {
+        return objectMapper.writeValueAsBytes(journals);
+    }
+
+    @Benchmark
+    public byte[] users() throws Exception {
+        return objectMapper.writeValueAsBytes(users);
+    }
+
+    private static String text(ThreadLocalRandom random, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(random.nextInt(8) == 0 ? ' ' : (char) ('a' + random.nextInt(26)));
+        }
+        return builder.toString();
+    }
+}
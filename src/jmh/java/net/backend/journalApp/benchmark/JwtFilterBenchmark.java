@@ -0,0 +1,80 @@
+package net.backend.journalApp.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.backend.journalApp.jwtFilter.JwtFilter;
+import net.backend.journalApp.model.UserModel;
+import net.backend.journalApp.utils.JwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One authenticated request through {@link JwtFilter}, with a stub {@link UserDetailsService} in place of Mongo.
+ * `selfContained` compares database-backed tokens with tokens that carry their roles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    @Param({"false", "true"})
+    private boolean selfContained;
+
+    private JwtFilter filter;
+
+    private String authorizationHeader;
+
+    @Setup
+    public void setup() {
+        JwtUtil jwtUtil = BenchmarkSupport.jwtUtil(selfContained, 10000);
+        UserDetails user = User.withUsername("bench-user").password("{noop}secret").roles("USER").build();
+        UserDetailsService userDetailsService = username -> User.withUserDetails(user).build();
+
+        filter = new JwtFilter();
+        ReflectionTestUtils.setField(filter, "userDetailsService", userDetailsService);
+        ReflectionTestUtils.setField(filter, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(filter, "userVersionTable", BenchmarkSupport.userVersionTable());
+        ReflectionTestUtils.setField(filter, "meterRegistry", new SimpleMeterRegistry());
+        filter.init();
+
+        UserModel userModel = new UserModel();
+        userModel.setId("0123456789abcdef01234567");
+        userModel.setUserName(user.getUsername());
+        userModel.setRoles(Collections.singletonList("USER"));
+        authorizationHeader = "Bearer " + jwtUtil.generateToken(userModel);
+    }
+
+    @Benchmark
+    public Object authenticatedRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/journal/get-all-user-journals");
+        request.addHeader("Authorization", authorizationHeader);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
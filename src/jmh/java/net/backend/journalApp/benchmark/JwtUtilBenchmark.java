@@ -0,0 +1,75 @@
+package net.backend.journalApp.benchmark;
+
+import net.backend.journalApp.utils.JwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token generation, username extraction and validation in {@link JwtUtil}.
+ * `validateUncached` alternates between two tokens through a one-entry verification cache,
+ * so every call pays for parsing and the HMAC check, as the first request with a token does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private JwtUtil jwtUtil;
+
+    private JwtUtil uncachedJwtUtil;
+
+    private UserDetails user;
+
+    private String token;
+
+    private String[] alternatingTokens;
+
+    private int next;
+
+    @Setup
+    public void setup() {
+        jwtUtil = BenchmarkSupport.jwtUtil(false, 10000);
+        uncachedJwtUtil = BenchmarkSupport.jwtUtil(false, 1);
+        user = User.withUsername("bench-user").password("").roles("USER").build();
+        token = jwtUtil.generateToken(user.getUsername());
+        alternatingTokens = new String[]{
+                uncachedJwtUtil.generateToken(user.getUsername()),
+                uncachedJwtUtil.generateToken("bench-other")};
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(user.getUsername());
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtUtil.extractUsername(token);
+    }
+
+    @Benchmark
+    public boolean validateCached() {
+        return jwtUtil.validateToken(token, user);
+    }
+
+    @Benchmark
+    public boolean validateUncached() {
+        next ^= 1;
+        return uncachedJwtUtil.validateToken(alternatingTokens[next], user);
+    }
+}
@@ -0,0 +1,377 @@
+package net.backend.journalApp.loadtest;
+
+import net.backend.journalApp.model.JournalModel;
+import net.backend.journalApp.model.UserModel;
+import net.backend.journalApp.services.CategoryCounterService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * End-to-end load test: boots the application against an embedded, single-node replica set Mongo,
+ * seeds users and journals, then drives a weighted mix of requests through the real HTTP endpoints
+ * from several threads and reports throughput and latency percentiles per operation.
+ *
+ * Run with `mvn -P loadtest test`; scale and mix are set with system properties, for example
+ * `-Dloadtest.users=500 -Dloadtest.journals-per-user=200 -Dloadtest.threads=32 -Dloadtest.duration-seconds=120`.
+ * The report is printed and written to target/loadtest-report.txt.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+class JournalLoadTest {
+
+    private static final String PASSWORD = "load-test-password";
+
+    // The create endpoint answers with the saved entity's toString, so the new id is read from there.
+    private static final Pattern CREATED_ID = Pattern.compile("JournalModel\\(id=([0-9a-f]{24})");
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private CategoryCounterService categoryCounterService;
+
+    @Value("${loadtest.users:50}")
+    private int users; // Seeded users; requests are spread evenly over them.
+
+    @Value("${loadtest.journals-per-user:20}")
+    private int journalsPerUser; // Seeded journal entries per user.
+
+    @Value("${loadtest.threads:16}")
+    private int threads; // Concurrent clients.
+
+    @Value("${loadtest.warmup-seconds:10}")
+    private int warmupSeconds; // Run before measuring, so JIT compilation and caches settle.
+
+    @Value("${loadtest.duration-seconds:60}")
+    private int durationSeconds; // Length of the measured run.
+
+    @Value("${loadtest.mix:login:5,post:10,list:25,get:40,update:12,delete:8}")
+    private String mix; // Relative weights of the operations.
+
+    @Value("${loadtest.max-error-rate:0.01}")
+    private double maxErrorRate; // The run fails if a larger share of requests errors.
+
+    private final List<String> userNames = new ArrayList<>();
+
+    private final Map<String, OwnedJournals> journals = new ConcurrentHashMap<>(); // userName -> ids of their journals.
+
+    private final Map<String, String> tokens = new ConcurrentHashMap<>(); // userName -> last issued JWT.
+
+    private byte[] image;
+
+    @Test
+    void mixedWorkload() throws Exception {
+        seed();
+        image = samplePng();
+        List<String> operations = weightedOperations(mix);
+
+        run(operations, warmupSeconds, new LatencyStats());
+
+        LatencyStats stats = new LatencyStats();
+        long elapsed = run(operations, durationSeconds, stats);
+
+        String report = String.format("Load test: %d users x %d journals, %d threads, %d s%n%s",
+                users, journalsPerUser, threads, durationSeconds, stats.report(elapsed));
+        System.out.println(report);
+        Path reportFile = Paths.get("target", "loadtest-report.txt");
+        Files.createDirectories(reportFile.getParent());
+        Files.write(reportFile, report.getBytes(StandardCharsets.UTF_8));
+
+        double errorRate = stats.totalCount() == 0 ? 1.0 : stats.totalErrors() / (double) stats.totalCount();
+        assertTrue(errorRate <= maxErrorRate, "Error rate " + errorRate + " exceeds " + maxErrorRate);
+    }
+
+    /**
+     * Inserts users and journals in bulk, straight into Mongo: seeding through the API would take
+     * longer than the test and is not what is being measured.
+     */
+    private void seed() {
+        String passwordHash = passwordEncoder.encode(PASSWORD); // BCrypt once; every seeded user shares it.
+        List<UserModel> seededUsers = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            UserModel user = new UserModel();
+            user.setUserName("load-user-" + i);
+            user.setPassword(passwordHash);
+            user.setRoles(Collections.singletonList("USER"));
+            user.setCreatedAt(LocalDateTime.now());
+            seededUsers.add(user);
+        }
+        mongoTemplate.insert(seededUsers, UserModel.class);
+
+        Map<String, OwnedJournals> byOwnerId = new HashMap<>();
+        List<JournalModel> batch = new ArrayList<>();
+        for (UserModel user : seededUsers) {
+            userNames.add(user.getUserName());
+            OwnedJournals owned = new OwnedJournals();
+            journals.put(user.getUserName(), owned);
+            byOwnerId.put(user.getId(), owned);
+            for (int j = 0; j < journalsPerUser; j++) {
+                batch.add(JournalModel.builder()
+                        .title("Seeded entry " + j)
+                        .content(text(1500))
+                        .journal_category("category-" + (j % 8))
+                        .ownerId(user.getId())
+                        .createdAt(LocalDateTime.now())
+                        .updatedAt(LocalDateTime.now())
+                        .build());
+                if (batch.size() == 1000) {
+                    insertJournals(batch, byOwnerId);
+                }
+            }
+        }
+        insertJournals(batch, byOwnerId);
+        categoryCounterService.reconcile();
+    }
+
+    private void insertJournals(List<JournalModel> batch, Map<String, OwnedJournals> byOwnerId) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        mongoTemplate.insert(batch, JournalModel.class);
+        for (JournalModel journal : batch) {
+            byOwnerId.get(journal.getOwnerId()).add(journal.getId());
+        }
+        batch.clear();
+    }
+
+    /**
+     * Drives the mix from `threads` clients until the deadline.
+     *
+     * @return The wall-clock duration of the run in nanoseconds.
+     */
+    private long run(List<String> operations, int seconds, LatencyStats stats) throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService clients = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            clients.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    String operation = operations.get(random.nextInt(operations.size()));
+                    String userName = userNames.get(random.nextInt(userNames.size()));
+                    long begin = System.nanoTime();
+                    boolean error;
+                    try {
+                        error = !execute(operation, userName);
+                    } catch (RuntimeException e) {
+                        error = true;
+                    }
+                    stats.record(operation, System.nanoTime() - begin, error);
+                }
+            });
+        }
+        clients.shutdown();
+        clients.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Runs one operation as the given user.
+     *
+     * @return false if the request failed.
+     */
+    private boolean execute(String operation, String userName) {
+        OwnedJournals owned = journals.get(userName);
+        switch (operation) {
+            case "login":
+                return login(userName) != null;
+            case "post":
+                return post(userName, owned);
+            case "list":
+                return succeeded(exchange(HttpMethod.GET, "/api/v1/journal/get-all-user-journals", userName, null));
+            case "get": {
+                String id = owned.randomId();
+                if (id == null) {
+                    return true;
+                }
+                ResponseEntity<String> response = exchange(HttpMethod.GET, "/api/v1/journal/id/" + id, userName, null);
+                return succeeded(response) || response.getStatusCodeValue() == 404; // Deleted by another client meanwhile.
+            }
+            case "update": {
+                String id = owned.randomId();
+                if (id == null) {
+                    return true;
+                }
+                MultiValueMap<String, Object> form = journalForm("Updated entry", false);
+                ResponseEntity<String> response = exchange(HttpMethod.PUT, "/api/v1/journal/update/id/" + id, userName, form);
+                return succeeded(response) || response.getStatusCodeValue() == 404;
+            }
+            case "delete": {
+                String id = owned.removeRandom();
+                if (id == null) {
+                    return true;
+                }
+                return succeeded(exchange(HttpMethod.DELETE, "/api/v1/journal/delete/id/" + id, userName, null));
+            }
+            default:
+                throw new IllegalArgumentException("Unknown operation: " + operation);
+        }
+    }
+
+    private boolean post(String userName, OwnedJournals owned) {
+        ResponseEntity<String> response = exchange(HttpMethod.POST, "/api/v1/journal/post", userName, journalForm("Posted entry", true));
+        if (!succeeded(response)) {
+            return false;
+        }
+        Matcher matcher = CREATED_ID.matcher(String.valueOf(response.getBody()));
+        if (matcher.find()) {
+            owned.add(matcher.group(1));
+        }
+        return true;
+    }
+
+    private String login(String userName) {
+        Map<String, String> credentials = new HashMap<>();
+        credentials.put("userName", userName);
+        credentials.put("password", PASSWORD);
+        ResponseEntity<String> response = restTemplate.postForEntity("/api/v1/public/login", credentials, String.class);
+        if (!succeeded(response)) {
+            return null;
+        }
+        tokens.put(userName, response.getBody());
+        return response.getBody();
+    }
+
+    private ResponseEntity<String> exchange(HttpMethod method, String path, String userName, MultiValueMap<String, Object> form) {
+        String token = tokens.get(userName);
+        if (token == null) {
+            token = login(userName); // First request of a user logs in; not recorded as a login.
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        if (form != null) {
+            headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        }
+        return restTemplate.exchange(path, method, new HttpEntity<>(form, headers), String.class);
+    }
+
+    private MultiValueMap<String, Object> journalForm(String title, boolean withImage) {
+        MultiValueMap<String, Object> form = new LinkedMultiValueMap<>();
+        form.add("title", title);
+        form.add("content", text(1500));
+        form.add("journal_category", "category-" + ThreadLocalRandom.current().nextInt(8));
+        if (withImage) {
+            form.add("image", new ByteArrayResource(image) {
+                @Override
+                public String getFilename() {
+                    return "load-test.png";
+                }
+            });
+        }
+        return form;
+    }
+
+    private static boolean succeeded(ResponseEntity<?> response) {
+        return response.getStatusCode().is2xxSuccessful();
+    }
+
+    private static List<String> weightedOperations(String mix) {
+        List<String> operations = new ArrayList<>();
+        for (String part : mix.split(",")) {
+            String[] weighted = part.trim().split(":");
+            int weight = Integer.parseInt(weighted[1].trim());
+            for (int i = 0; i < weight; i++) {
+                operations.add(weighted[0].trim());
+            }
+        }
+        return operations;
+    }
+
+    // A 640x480 photo-sized PNG, so variant generation does realistic work.
+    private static byte[] samplePng() throws IOException {
+        BufferedImage picture = new BufferedImage(640, 480, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = picture.createGraphics();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < 200; i++) {
+            graphics.setColor(new Color(random.nextInt(0xFFFFFF)));
+            graphics.fillOval(random.nextInt(640), random.nextInt(480), 40, 40);
+        }
+        graphics.dispose();
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(picture, "png", png);
+        return png.toByteArray();
+    }
+
+    private static String text(int length) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(random.nextInt(8) == 0 ? ' ' : (char) ('a' + random.nextInt(26)));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Ids of one user's journals, for picking targets of reads, updates and deletes.
+     */
+    private static final class OwnedJournals {
+
+        private final List<String> ids = new ArrayList<>();
+
+        synchronized void add(String id) {
+            ids.add(id);
+        }
+
+        synchronized String randomId() {
+            return ids.isEmpty() ? null : ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        }
+
+        // Removes by swapping with the last id, so deletes stay O(1).
+        synchronized String removeRandom() {
+            if (ids.isEmpty()) {
+                return null;
+            }
+            int index = ThreadLocalRandom.current().nextInt(ids.size());
+            String id = ids.get(index);
+            ids.set(index, ids.get(ids.size() - 1));
+            ids.remove(ids.size() - 1);
+            return id;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package net.backend.journalApp.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects per-operation latencies and errors of a load test run and formats them as a report.
+ * Percentiles are exact (nearest rank over every recorded sample), not estimated.
+ */
+class LatencyStats {
+
+    private final Map<String, Samples> samples = new TreeMap<>(); // Guarded by itself.
+
+    void record(String operation, long nanos, boolean error) {
+        Samples operationSamples;
+        synchronized (samples) {
+            operationSamples = samples.computeIfAbsent(operation, k -> new Samples());
+        }
+        operationSamples.add(nanos, error);
+    }
+
+    long totalCount() {
+        long count = 0;
+        synchronized (samples) {
+            for (Samples operationSamples : samples.values()) {
+                count += operationSamples.count();
+            }
+        }
+        return count;
+    }
+
+    long totalErrors() {
+        long errors = 0;
+        synchronized (samples) {
+            for (Samples operationSamples : samples.values()) {
+                errors += operationSamples.errors();
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * @param elapsedNanos Wall-clock length of the measured run, used for throughput.
+     */
+    String report(long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-8s %9s %7s %10s %9s %9s %9s %9s %9s%n",
+                "op", "count", "errors", "ops/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        synchronized (samples) {
+            for (Map.Entry<String, Samples> entry : samples.entrySet()) {
+                long[] sorted = entry.getValue().sorted();
+                report.append(String.format("%-8s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                        entry.getKey(), sorted.length, entry.getValue().errors(), sorted.length / seconds,
+                        millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.90)),
+                        millis(percentile(sorted, 0.99)), millis(percentile(sorted, 0.999)),
+                        millis(sorted.length == 0 ? 0 : sorted[sorted.length - 1])));
+            }
+        }
+        report.append(String.format("total    %9d %7d %10.1f%n", totalCount(), totalErrors(), totalCount() / seconds));
+        return report.toString();
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private static final class Samples {
+
+        private long[] latencies = new long[1024];
+
+        private int count;
+
+        private long errors;
+
+        synchronized void add(long nanos, boolean error) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (error) {
+                errors++;
+            }
+        }
+
+        synchronized int count() {
+            return count;
+        }
+
+        synchronized long errors() {
+            return errors;
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(latencies, count);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
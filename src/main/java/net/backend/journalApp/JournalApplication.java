@@ -3,22 +3,27 @@ package net.backend.journalApp;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.data.mongodb.MongoDatabaseFactory;
 import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 import org.springframework.web.client.RestTemplate;
 
 @SpringBootApplication
 @EnableTransactionManagement
+@EnableScheduling
 public class JournalApplication {
 
     public static void main(String[] args) {
          SpringApplication.run(JournalApplication.class, args);
     }
 
+    // Only in the transactional write mode; the atomic mode also runs against a standalone mongod, which has no transactions.
     @Bean
+    @ConditionalOnProperty(name = "journal.write-mode", havingValue = "transactional", matchIfMissing = true)
     public PlatformTransactionManager platformTransactionManager(MongoDatabaseFactory dbFactory){
         return new MongoTransactionManager(dbFactory);
     }
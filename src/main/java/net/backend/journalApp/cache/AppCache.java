@@ -1,42 +1,227 @@
 package net.backend.journalApp.cache;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
 import net.backend.journalApp.model.ConfigJournalAppModel;
 import net.backend.journalApp.repository.ConfigJournalAppRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
- * The `AppCache` class is responsible for initializing and managing a cache
- * for application configuration settings. These settings are fetched from
- * the database and stored in memory for quick access throughout the application.
+ * The `AppCache` class holds the application configuration settings stored in the database.
+ *
+ * Settings are kept in an immutable, versioned snapshot behind an atomic reference: readers
+ * never lock, and a refresh builds a new snapshot and swaps it in. A background refresher
+ * periodically loads only the settings whose `updatedAt` moved, with a periodic full reload
+ * to pick up deletions; an admin endpoint can force a full reload at any time.
  */
+@Slf4j
 @Component // Marks this class as a Spring-managed component for dependency injection.
 public class AppCache {
 
     @Autowired
     private ConfigJournalAppRepository configJournalAppRepository; // Repository for accessing configuration data from the database.
 
-    public Map<String, String> APP_CACHE; // In-memory cache to store key-value pairs of configuration data.
+    @Value("${app-cache.full-reload-every:10}")
+    private int fullReloadEvery; // Every Nth scheduled refresh reloads everything instead of only changed keys.
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY); // Current settings; swapped atomically.
+
+    private int refreshCount; // Scheduled refreshes so far; only touched while holding the instance lock.
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Counter hits; // Lookups of a configured setting.
+
+    private Counter misses; // Lookups of a setting that is not configured.
 
     /**
-     * This method initializes the application cache. It is executed automatically
-     * after the bean is constructed (PostConstruct lifecycle event).
+     * Loads every setting once the bean is constructed.
      */
     @PostConstruct
     public void init() {
-        APP_CACHE = new HashMap<>(); // Initialize the in-memory cache as a HashMap.
+        hits = Counter.builder("app.cache.lookups").tag("result", "hit").register(meterRegistry);
+        misses = Counter.builder("app.cache.lookups").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("app.cache.version", this, AppCache::getVersion).register(meterRegistry);
+        reload();
+    }
 
-        // Fetch all configuration settings from the database.
+    /**
+     * Scheduled refresh: applies changed keys, or reloads everything every `app-cache.full-reload-every` runs.
+     */
+    @Scheduled(fixedDelayString = "${app-cache.refresh-interval-ms:60000}", initialDelayString = "${app-cache.refresh-interval-ms:60000}")
+    public synchronized void scheduledRefresh() {
+        try {
+            if (++refreshCount % fullReloadEvery == 0) {
+                reload();
+            } else {
+                refreshChanged();
+            }
+        } catch (Exception e) {
+            log.error("Failed to refresh application cache; keeping version {}", getVersion(), e);
+        }
+    }
+
+    /**
+     * Replaces the snapshot with every setting currently in the database.
+     *
+     * @return The version of the new snapshot.
+     */
+    public synchronized long reload() {
         List<ConfigJournalAppModel> all = configJournalAppRepository.findAll();
+        Map<String, String> values = new HashMap<>();
+        LocalDateTime watermark = null;
+        for (ConfigJournalAppModel config : all) {
+            values.put(config.getKey(), config.getValue());
+            watermark = latest(watermark, config.getUpdatedAt());
+        }
+        Snapshot current = snapshot.get();
+        Snapshot next = new Snapshot(values, current.version + 1, watermark);
+        snapshot.set(next);
+        log.info("Application cache reloaded: {} settings, version {}", values.size(), next.version);
+        return next.version;
+    }
+
+    /**
+     * Applies only the settings changed since the newest `updatedAt` already seen.
+     * A new snapshot is published only if a value actually changed.
+     *
+     * @return The number of settings whose value changed.
+     */
+    public synchronized int refreshChanged() {
+        Snapshot current = snapshot.get();
+        if (current.watermark == null) {
+            reload(); // Nothing carried an updatedAt yet, so there is no point to refresh from.
+            return 0;
+        }
+
+        // Re-reads the settings at the watermark itself, so writes landing in the same instant are not missed.
+        List<ConfigJournalAppModel> changed = configJournalAppRepository.findByUpdatedAtGreaterThanEqual(current.watermark);
+        Map<String, String> values = null;
+        LocalDateTime watermark = current.watermark;
+        int updates = 0;
+        for (ConfigJournalAppModel config : changed) {
+            watermark = latest(watermark, config.getUpdatedAt());
+            if (Objects.equals(current.values.get(config.getKey()), config.getValue())) {
+                continue;
+            }
+            if (values == null) {
+                values = new HashMap<>(current.values);
+            }
+            values.put(config.getKey(), config.getValue());
+            updates++;
+        }
+
+        if (values != null) {
+            snapshot.set(new Snapshot(values, current.version + 1, watermark));
+            log.info("Application cache refreshed: {} settings changed, version {}", updates, current.version + 1);
+        } else if (!Objects.equals(watermark, current.watermark)) {
+            snapshot.set(new Snapshot(current.values, current.version, watermark));
+        }
+        return updates;
+    }
+
+    /**
+     * @return The raw value of a setting, or null if it is not configured.
+     */
+    public String get(String key) {
+        String value = snapshot.get().values.get(key);
+        (value != null ? hits : misses).increment();
+        return value;
+    }
+
+    public String getString(String key, String defaultValue) {
+        String value = get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    public int getInt(String key, int defaultValue) {
+        String value = get(key);
+        try {
+            return value != null ? Integer.parseInt(value.trim()) : defaultValue;
+        } catch (NumberFormatException e) {
+            log.warn("Setting '{}' is not an integer: {}", key, value);
+            return defaultValue;
+        }
+    }
+
+    public long getLong(String key, long defaultValue) {
+        String value = get(key);
+        try {
+            return value != null ? Long.parseLong(value.trim()) : defaultValue;
+        } catch (NumberFormatException e) {
+            log.warn("Setting '{}' is not a long: {}", key, value);
+            return defaultValue;
+        }
+    }
+
+    public double getDouble(String key, double defaultValue) {
+        String value = get(key);
+        try {
+            return value != null ? Double.parseDouble(value.trim()) : defaultValue;
+        } catch (NumberFormatException e) {
+            log.warn("Setting '{}' is not a number: {}", key, value);
+            return defaultValue;
+        }
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = get(key);
+        return value != null ? Boolean.parseBoolean(value.trim()) : defaultValue;
+    }
+
+    /**
+     * @return An unmodifiable view of every setting in the current snapshot.
+     */
+    public Map<String, String> asMap() {
+        return snapshot.get().values;
+    }
+
+    /**
+     * @return The version of the current snapshot; it increases every time a setting changes.
+     */
+    public long getVersion() {
+        return snapshot.get().version;
+    }
+
+    private static LocalDateTime latest(LocalDateTime a, LocalDateTime b) {
+        if (a == null) {
+            return b;
+        }
+        return b != null && b.isAfter(a) ? b : a;
+    }
+
+    /**
+     * An immutable view of the settings at one point in time.
+     */
+    private static final class Snapshot {
+
+        private static final Snapshot EMPTY = new Snapshot(Collections.<String, String>emptyMap(), 0, null);
+
+        private final Map<String, String> values;
+
+        private final long version;
+
+        private final LocalDateTime watermark; // Newest updatedAt seen; incremental refreshes start from here.
 
-        // Populate the cache with key-value pairs from the database.
-        for (ConfigJournalAppModel configJournalAppModel : all) {
-            APP_CACHE.put(configJournalAppModel.getKey(), configJournalAppModel.getValue());
+        private Snapshot(Map<String, String> values, long version, LocalDateTime watermark) {
+            this.values = Collections.unmodifiableMap(values);
+            this.version = version;
+            this.watermark = watermark;
         }
     }
 }
@@ -0,0 +1,119 @@
+package net.backend.journalApp.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A small in-memory cache bounded by entry count, with a per-entry expiry.
+ * When full, the least recently used entry is evicted; expired entries are dropped on access.
+ * All operations are thread-safe and O(1); hit and miss counts are kept for monitoring.
+ *
+ * @param <K> The key type.
+ * @param <V> The value type.
+ */
+public class BoundedTtlCache<K, V> {
+
+    private final long defaultTtlMillis; // Time to live used by put(key, value); 0 means entries never expire by age.
+
+    private final Map<K, Entry<V>> entries; // Access-ordered so the eldest entry is the least recently used one.
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param maxSize Maximum number of entries kept; must be positive.
+     * @param defaultTtlMillis Time to live for entries added without an explicit expiry, or 0 for none.
+     */
+    public BoundedTtlCache(final int maxSize, long defaultTtlMillis) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.defaultTtlMillis = defaultTtlMillis;
+        this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached value, or null if it is absent or expired.
+     */
+    public V get(K key) {
+        Entry<V> entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && entry.isExpired(System.currentTimeMillis())) {
+                entries.remove(key);
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    /**
+     * Caches a value using the default time to live.
+     */
+    public void put(K key, V value) {
+        put(key, value, defaultTtlMillis > 0 ? System.currentTimeMillis() + defaultTtlMillis : Long.MAX_VALUE);
+    }
+
+    /**
+     * Caches a value until the given instant (epoch millis).
+     */
+    public void put(K key, V value, long expiresAtMillis) {
+        synchronized (entries) {
+            entries.put(key, new Entry<>(value, expiresAtMillis));
+        }
+    }
+
+    public void remove(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    private static final class Entry<V> {
+
+        private final V value;
+
+        private final long expiresAtMillis;
+
+        private Entry(V value, long expiresAtMillis) {
+            this.value = value;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAtMillis;
+        }
+    }
+}
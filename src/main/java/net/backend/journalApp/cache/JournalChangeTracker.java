@@ -0,0 +1,105 @@
+package net.backend.journalApp.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory change versions of journal data, used to build ETags without touching the database.
+ *
+ * Every journal write bumps a global version and stamps it on the journal and on its owner, so the
+ * version of a single entry, of one user's entries, or of the whole collection can be read in O(1).
+ * Entries first looked up (or evicted) get the current global version, which is never lower than
+ * any version handed out before, so a lookup may cost a client a full response but never a stale 304.
+ *
+ * Versions only cover writes made through this instance and start over on restart; the per-boot id
+ * in every ETag keeps tags from different processes apart. With several instances behind one
+ * address, writes made elsewhere are not seen here, so `journal.etag.enabled` must stay off there.
+ */
+@Component
+public class JournalChangeTracker {
+
+    @Value("${journal.etag.enabled:false}")
+    private boolean enabled; // Whether read endpoints answer If-None-Match.
+
+    @Value("${journal.etag.max-tracked:100000}")
+    private int maxTracked; // Upper bound on tracked journals and on tracked users.
+
+    private final String bootId = Long.toString(UUID.randomUUID().getMostSignificantBits() & Long.MAX_VALUE, 36);
+
+    private final AtomicLong globalVersion = new AtomicLong();
+
+    private BoundedTtlCache<String, Long> journalVersions; // Journal id -> version of its last change.
+
+    private BoundedTtlCache<String, Long> userVersions; // Owner's userName -> version of the last change to any of their journals.
+
+    @PostConstruct
+    public void init() {
+        journalVersions = new BoundedTtlCache<>(maxTracked, 0);
+        userVersions = new BoundedTtlCache<>(maxTracked, 0);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Records a change to one journal entry owned by the given user.
+     */
+    public synchronized void journalChanged(String journalId, String userName) {
+        long version = globalVersion.incrementAndGet();
+        journalVersions.put(journalId, version);
+        if (userName != null) {
+            userVersions.put(userName, version);
+        }
+    }
+
+    /**
+     * Records a change to the journal list of a user that is not tied to one entry, e.g. a rename or deletion.
+     */
+    public synchronized void userChanged(String userName) {
+        userVersions.put(userName, globalVersion.incrementAndGet());
+    }
+
+    /**
+     * Forgets every tracked version after a bulk write made outside the service layer.
+     */
+    public synchronized void invalidateAll() {
+        globalVersion.incrementAndGet();
+        journalVersions.clear();
+        userVersions.clear();
+    }
+
+    /**
+     * ETag of a single journal entry.
+     */
+    public String journalEtag(String journalId) {
+        return bootId + "-j" + versionOf(journalVersions, journalId);
+    }
+
+    /**
+     * ETag of the journal list of one user; the userName hash keeps tags of different users sharing a client apart.
+     */
+    public String userJournalsEtag(String userName) {
+        return bootId + "-u" + versionOf(userVersions, userName) + "-" + Integer.toHexString(userName.hashCode());
+    }
+
+    /**
+     * ETag of any listing over the whole journal collection.
+     */
+    public String allJournalsEtag() {
+        return bootId + "-a" + globalVersion.get();
+    }
+
+    private synchronized long versionOf(BoundedTtlCache<String, Long> versions, String key) {
+        Long version = versions.get(key);
+        if (version == null) {
+            version = globalVersion.get();
+            versions.put(key, version);
+        }
+        return version;
+    }
+}
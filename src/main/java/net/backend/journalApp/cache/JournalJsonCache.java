@@ -0,0 +1,135 @@
+package net.backend.journalApp.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import javax.annotation.PostConstruct;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ready-to-write UTF-8 JSON of recently read journal entries, bounded by total bytes.
+ *
+ * Entries are keyed by journal id and checked against the stored `updatedAt` the caller just read, so bytes
+ * serialized from an older version are never served even if they race with an eviction. When the
+ * byte budget is exceeded the least recently used entries are dropped; a single document larger than
+ * a quarter of the budget is not cached at all.
+ */
+@Component
+public class JournalJsonCache {
+
+    @Value("${journal.json-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${journal.json-cache.max-size:64MB}")
+    private DataSize maxSize; // Upper bound on the summed length of all cached documents.
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true); // Access-ordered for LRU eviction.
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private long maxBytes;
+
+    private long cachedBytes; // Guarded by `entries`.
+
+    @PostConstruct
+    public void init() {
+        maxBytes = maxSize.toBytes();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return The cached JSON of the journal, or null if it is absent or was serialized from another version.
+     */
+    public byte[] get(String journalId, Date updatedAt) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(journalId);
+        }
+        if (entry == null || !Objects.equals(entry.updatedAt, updatedAt)) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.json;
+    }
+
+    /**
+     * Caches the JSON of one version of a journal, evicting the least recently used entries to stay within budget.
+     */
+    public void put(String journalId, Date updatedAt, byte[] json) {
+        if (json.length > maxBytes / 4) {
+            return;
+        }
+        synchronized (entries) {
+            Entry previous = entries.put(journalId, new Entry(updatedAt, json));
+            if (previous != null) {
+                cachedBytes -= previous.json.length;
+            }
+            cachedBytes += json.length;
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (cachedBytes > maxBytes && eldest.hasNext()) {
+                cachedBytes -= eldest.next().json.length;
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * Drops the cached JSON of a journal after it was changed or deleted.
+     */
+    public void evict(String journalId) {
+        synchronized (entries) {
+            Entry removed = entries.remove(journalId);
+            if (removed != null) {
+                cachedBytes -= removed.json.length;
+            }
+        }
+    }
+
+    /**
+     * Drops every cached document, e.g. after journals were rewritten behind the service layer.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            cachedBytes = 0;
+        }
+    }
+
+    public long getCachedBytes() {
+        synchronized (entries) {
+            return cachedBytes;
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    private static final class Entry {
+
+        private final Date updatedAt; // Version the bytes were serialized from.
+
+        private final byte[] json;
+
+        private Entry(Date updatedAt, byte[] json) {
+            this.updatedAt = updatedAt;
+            this.json = json;
+        }
+    }
+}
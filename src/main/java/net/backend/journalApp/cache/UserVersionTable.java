@@ -0,0 +1,49 @@
+package net.backend.journalApp.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * In-memory table of user versions, used to revoke self-contained JWTs without a database lookup.
+ *
+ * A user's version is bumped whenever their password or roles change (or the user is renamed or
+ * deleted), and self-contained tokens carry the version they were issued for. Only users changed
+ * since this instance started are tracked, and only for as long as a token can live; a user absent
+ * from the table has no newer version known here, so the signed claim is trusted.
+ *
+ * Users are tracked by id, not by name: a revoked name can be taken by a new user at once, and
+ * the previous owner's revocation must neither reach the new user nor be escaped by a rename.
+ */
+@Component
+public class UserVersionTable {
+
+    @Value("${jwt.user-version-table.max-size:100000}")
+    private int maxSize; // Upper bound on the number of tracked users.
+
+    @Value("${jwt.user-version-table.ttl-ms:86400000}")
+    private long tokenLifetimeMillis; // Matches the token lifetime: older tokens are expired by then anyway.
+
+    private BoundedTtlCache<String, Long> versions;
+
+    @PostConstruct
+    public void init() {
+        versions = new BoundedTtlCache<>(maxSize, tokenLifetimeMillis);
+    }
+
+    /**
+     * Records the current version of a user after a change that must invalidate older tokens.
+     */
+    public void record(String userId, long version) {
+        versions.put(userId, version);
+    }
+
+    /**
+     * @return true unless a newer version than the token's is known for this user.
+     */
+    public boolean isCurrent(String userId, long tokenVersion) {
+        Long current = versions.get(userId);
+        return current == null || tokenVersion >= current;
+    }
+}
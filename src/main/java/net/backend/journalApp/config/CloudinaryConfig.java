@@ -21,7 +21,7 @@ public class CloudinaryConfig {
     private String apiSecret;
     @Bean
     public Cloudinary cloudinary(){
-        Map cloudinaryConfig = new HashMap<>();
+        Map<String, Object> cloudinaryConfig = new HashMap<>();
         cloudinaryConfig.put("cloud_name", cloudName);
         cloudinaryConfig.put("api_key", apiKey);
         cloudinaryConfig.put("api_secret", apiSecret);
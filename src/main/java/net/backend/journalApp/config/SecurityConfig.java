@@ -92,20 +92,28 @@
 
 package net.backend.journalApp.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import net.backend.journalApp.jwtFilter.JwtFilter;
+import net.backend.journalApp.metrics.TimedPasswordEncoder;
+import net.backend.journalApp.security.BoundedPasswordEncoder;
+import net.backend.journalApp.security.CostAwareBCryptPasswordEncoder;
+import net.backend.journalApp.security.HashingCapacityExceededException;
 import net.backend.journalApp.services.UserDetailsServiceImpl;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationProvider;
 
 /**
@@ -120,6 +128,21 @@ public class SecurityConfig {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${security.bcrypt.strength:10}")
+    private int bcryptStrength; // BCrypt cost; hashes made with another cost are redone on the user's next login.
+
+    @Value("${security.password-hashing.threads:0}")
+    private int hashingThreads; // Passwords hashed at once; 0 means one per available processor.
+
+    @Value("${security.password-hashing.queue-capacity:64}")
+    private int hashingQueueCapacity; // Hashes allowed to wait for a thread before new ones are rejected.
+
+    @Value("${security.password-hashing.max-wait-ms:2000}")
+    private long hashingMaxWaitMillis; // Longest a request waits for its hash before it is answered with 503.
+
     /**
      * Defines the security filter chain to manage authentication and authorization.
      */
@@ -142,21 +165,41 @@ public class SecurityConfig {
     }
 
     /**
-     * Creates a bean for password encoding using BCrypt.
+     * Creates the one password encoder of the application: BCrypt at the configured cost, timed so hashing
+     * cost shows up in the metrics, and run on a bounded pool so it never occupies request threads.
      */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(
+                new TimedPasswordEncoder(new CostAwareBCryptPasswordEncoder(bcryptStrength), meterRegistry),
+                threads, hashingQueueCapacity, hashingMaxWaitMillis, meterRegistry);
     }
 
     /**
      * Defines the authentication provider, linking it with the user details service and password encoder.
+     * A successful login whose stored hash has another cost than configured stores a fresh hash, unless
+     * the hashing pool is saturated: the rehash is then skipped, and the verified login still succeeds.
      */
     @Bean
     public AuthenticationProvider authenticationProvider() {
-        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
+        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider() {
+            @Override
+            protected Authentication createSuccessAuthentication(Object principal, Authentication authentication, UserDetails user) {
+                try {
+                    return super.createSuccessAuthentication(principal, authentication, user);
+                } catch (HashingCapacityExceededException e) {
+                    // The pool filled up between the upgrade check and the rehash; retried on the next login.
+                    UsernamePasswordAuthenticationToken result = new UsernamePasswordAuthenticationToken(
+                            principal, authentication.getCredentials(), user.getAuthorities());
+                    result.setDetails(authentication.getDetails());
+                    return result;
+                }
+            }
+        };
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserDetailsPasswordService(userDetailsService); // Rehashes at the configured cost on login.
         return authProvider;
     }
 
@@ -1,16 +1,26 @@
 package net.backend.journalApp.controller;
 
 import lombok.extern.slf4j.Slf4j;
+import net.backend.journalApp.cache.AppCache;
+import net.backend.journalApp.cache.JournalJsonCache;
+import net.backend.journalApp.model.CursorPage;
 import net.backend.journalApp.model.UserModel;
+import net.backend.journalApp.model.UserSummary;
+import net.backend.journalApp.services.CategoryCounterService;
+import net.backend.journalApp.services.UserDetailsServiceImpl;
 import net.backend.journalApp.services.UserServices;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * The `AdminController` class handles administrative endpoints.
@@ -24,6 +34,18 @@ public class AdminController {
     @Autowired
     private UserServices userServices; // Service layer to handle user-related operations.
 
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService; // Authentication user lookups, with their cache.
+
+    @Autowired
+    private AppCache appCache; // Runtime settings loaded from the database.
+
+    @Autowired
+    private JournalJsonCache journalJsonCache; // Serialized journals served by GET /journal/id/{id}.
+
+    @Autowired
+    private CategoryCounterService categoryCounterService; // Materialized journal counts per category.
+
     /**
      * Retrieves all registered users in the system.
      *
@@ -53,5 +75,89 @@ public class AdminController {
                     .body("An unexpected error occurred while fetching users.");
         }
     }
-}
 
+    /**
+     * Lists users one page at a time, newest first, as summaries without credentials.
+     *
+     * @param cursor Opaque cursor returned by the previous page; omit for the first page.
+     * @param limit Maximum number of users to return.
+     * @return HTTP 200 (OK) with the page, 204 (NO_CONTENT) if there are no users, or 400 (BAD_REQUEST) for a malformed cursor.
+     */
+    @GetMapping("/users")
+    public ResponseEntity<CursorPage<UserSummary>> getUsersPage(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        log.info("Fetching user summaries page. Cursor: {}, limit: {}", cursor, limit);
+
+        try {
+            CursorPage<UserSummary> page = userServices.findUserSummariesPage(cursor, limit);
+            if (page.getItems().isEmpty()) {
+                log.info("No users found. Returning 204 No Content.");
+                return ResponseEntity.noContent().build();
+            }
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid cursor supplied: {}", cursor);
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error fetching user summaries: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Reports the hit and miss counters of the user details cache used for authentication.
+     *
+     * @return HTTP 200 (OK) with the cache counters and current size.
+     */
+    @GetMapping("/user-cache-stats")
+    public ResponseEntity<Map<String, Object>> getUserCacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", userDetailsService.getCacheHits());
+        stats.put("misses", userDetailsService.getCacheMisses());
+        stats.put("size", userDetailsService.getCacheSize());
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * Reports the hit and miss counters of the journal JSON cache and the bytes it holds.
+     *
+     * @return HTTP 200 (OK) with the cache counters and current size in bytes.
+     */
+    @GetMapping("/journal-json-cache-stats")
+    public ResponseEntity<Map<String, Object>> getJournalJsonCacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", journalJsonCache.getHits());
+        stats.put("misses", journalJsonCache.getMisses());
+        stats.put("bytes", journalJsonCache.getCachedBytes());
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * Reloads every application setting from the database without a restart.
+     *
+     * @return HTTP 200 (OK) with the new cache version and the number of settings loaded.
+     */
+    @PostMapping("/app-cache/refresh")
+    public ResponseEntity<Map<String, Object>> refreshAppCache() {
+        log.info("Reloading application cache on admin request.");
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("version", appCache.reload());
+        result.put("size", appCache.asMap().size());
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Rebuilds the journal category counters from the journals collection.
+     *
+     * @return HTTP 200 (OK) once the counters are rebuilt, or 409 (CONFLICT) if another instance is reconciling them.
+     */
+    @PostMapping("/category-counts/reconcile")
+    public ResponseEntity<String> reconcileCategoryCounts() {
+        log.info("Reconciling journal category counters on admin request.");
+        if (!categoryCounterService.reconcile()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Category counters are being reconciled by another instance.");
+        }
+        return ResponseEntity.ok("Category counters reconciled.");
+    }
+}
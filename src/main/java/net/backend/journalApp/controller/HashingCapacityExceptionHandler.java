@@ -0,0 +1,26 @@
+package net.backend.journalApp.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import net.backend.journalApp.security.HashingCapacityExceededException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Turns requests turned away by the saturated password hashing pool into a 503 response,
+ * for endpoints that hash passwords without handling the rejection themselves (e.g. password changes).
+ */
+@Slf4j
+@RestControllerAdvice
+public class HashingCapacityExceptionHandler {
+
+    @ExceptionHandler(HashingCapacityExceededException.class)
+    public ResponseEntity<String> handleHashingCapacityExceeded(HashingCapacityExceededException e) {
+        log.warn("Rejected request needing a password hash: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("Too many requests hashing passwords, please retry shortly.");
+    }
+}
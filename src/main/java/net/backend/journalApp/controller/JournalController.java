@@ -1,20 +1,39 @@
 package net.backend.journalApp.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.extern.slf4j.Slf4j;
+import net.backend.journalApp.cache.JournalChangeTracker;
+import net.backend.journalApp.model.CursorPage;
+import net.backend.journalApp.model.ImageStatus;
+import net.backend.journalApp.model.JournalBatchOperation;
+import net.backend.journalApp.model.JournalBatchResult;
+import net.backend.journalApp.model.SearchResultPage;
+import net.backend.journalApp.model.StagedImage;
+import net.backend.journalApp.model.UploadedImage;
 import net.backend.journalApp.model.JournalModel;
+import net.backend.journalApp.model.JournalPatch;
 import net.backend.journalApp.model.UserModel;
-import net.backend.journalApp.services.CloudinaryService;
+import net.backend.journalApp.services.ImageUploadPipeline;
 import net.backend.journalApp.services.JournalServices;
 import net.backend.journalApp.services.UserServices;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Map;
 
@@ -30,24 +49,38 @@ public class JournalController {
     private UserServices userServices;
 
     @Autowired
-    private CloudinaryService cloudinaryService;
+    private ImageUploadPipeline imageUploadPipeline;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JournalChangeTracker journalChangeTracker; // Change versions behind the ETags of the read endpoints.
+
+    private static final String NDJSON = "application/x-ndjson";
 
     @GetMapping("/get-all-user-journals")
-    public ResponseEntity<List<JournalModel>> getAllUserJournals() {
+    public ResponseEntity<List<JournalModel>> getAllUserJournals(WebRequest webRequest) {
         try {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
             String userName = authentication.getName();
-            log.info("Fetching journal entries for user: {}", userName);
 
-            UserModel user = userServices.findByUserName(userName);
-            List<JournalModel> journals = user.getJournalEntries();
+            // Answer a conditional poll from the change tracker, before any query or serialization.
+            if (journalChangeTracker.isEnabled()
+                    && webRequest.checkNotModified(journalChangeTracker.userJournalsEtag(userName))) {
+                log.debug("Journal entries of user {} not modified.", userName);
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
+            log.debug("Fetching journal entries for user: {}", userName);
+
+            List<JournalModel> journals = journalServices.findJournalsByUserName(userName);
 
             if (journals == null || journals.isEmpty()) {
                 log.warn("No journal entries found for user: {}", userName);
                 return ResponseEntity.noContent().build();
             }
 
-            log.info("Successfully fetched {} journal entries for user: {}", journals.size(), userName);
+            log.debug("Successfully fetched {} journal entries for user: {}", journals.size(), userName);
             return ResponseEntity.ok(journals);
         } catch (Exception e) {
             log.error("Error fetching all user journals", e);
@@ -56,24 +89,39 @@ public class JournalController {
     }
 
     /**
-     * Endpoint to fetch all journal entries
+     * Endpoint to fetch journal entries one page at a time, newest first.
+     *
+     * @param cursor Opaque cursor from the previous page's `nextCursor`; omit it for the first page.
+     * @param limit Maximum number of entries to return.
      */
     @GetMapping("/get-all-journals")
-    public ResponseEntity<List<JournalModel>> getAllJournals() {
-        log.info("Received request to fetch all journals.");
+    public ResponseEntity<CursorPage<JournalModel>> getAllJournals(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "20") int limit,
+            WebRequest webRequest) {
+        log.debug("Received request to fetch journals page. Cursor: {}, limit: {}", cursor, limit);
 
         try {
+            // Any journal write changes the tag, so every cursor page can be revalidated against it.
+            if (journalChangeTracker.isEnabled()
+                    && webRequest.checkNotModified(journalChangeTracker.allJournalsEtag())) {
+                log.debug("Journals page not modified.");
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
 
-            List<JournalModel> journals = journalServices.findAllJournals();
+            CursorPage<JournalModel> page = journalServices.findJournalsPage(cursor, limit);
 
-            if (journals.isEmpty()) {
-                log.info("No journals found. Returning 204 No Content.");
+            if (page.getItems().isEmpty()) {
+                log.debug("No journals found. Returning 204 No Content.");
                 return ResponseEntity.noContent().build();
             }
 
-            log.info("Returning {} journal entries.", journals.size());
-            return ResponseEntity.ok(journals);
+            log.debug("Returning {} journal entries.", page.getItems().size());
+            return ResponseEntity.ok(page);
 
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid cursor supplied: {}", cursor);
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             log.error("Error fetching all journals", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -81,17 +129,91 @@ public class JournalController {
         }
     }
 
+    /**
+     * Endpoint to export every journal entry as newline-delimited JSON.
+     * Documents are written to the response while the Mongo cursor is read, one JSON object per line.
+     */
+    @GetMapping(value = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportAllJournals() {
+        log.info("Received request to export all journals as NDJSON.");
+
+        StreamingResponseBody body = out -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+            generator.setRootValueSeparator(null); // Lines are separated explicitly below.
+            ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            long exported = journalServices.streamAllJournals(journal -> {
+                try {
+                    writer.writeValue(generator, journal);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.flush();
+            log.info("Exported {} journal entries.", exported);
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+
+    /**
+     * Endpoint to search journal titles and contents, best match first.
+     *
+     * @param q Free-text query.
+     * @param page Zero-based page number.
+     * @param size Page size.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<SearchResultPage> searchJournals(
+            @RequestParam("q") String q,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        try {
+            SearchResultPage results = journalServices.searchJournals(q, page, size);
+            log.info("Search for '{}' matched {} journals.", q, results.getTotal());
+            return ResponseEntity.ok(results);
+        } catch (Exception e) {
+            log.error("Error searching journals for: {}", q, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Endpoint returning journal counts per category, overall and for the current user.
+     */
+    @GetMapping("/facets/categories")
+    public ResponseEntity<Map<String, Map<String, Long>>> getCategoryFacets() {
+        try {
+            String userName = SecurityContextHolder.getContext().getAuthentication().getName();
+            Map<String, Map<String, Long>> facets = journalServices.getCategoryFacets(userName);
+            if (facets == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+            }
+            return ResponseEntity.ok(facets);
+        } catch (Exception e) {
+            log.error("Error fetching category facets", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @GetMapping("/id/{journalId}")
-    public ResponseEntity<?> getJournalById(@PathVariable ObjectId journalId) {
+    public ResponseEntity<?> getJournalById(@PathVariable ObjectId journalId, WebRequest webRequest) {
         try {
-            log.info("Fetching journal entry with ID: {}", journalId);
-            ResponseEntity<?> response = journalServices.findJournalById(journalId);
-            if (response == null) {
+            if (journalChangeTracker.isEnabled()
+                    && webRequest.checkNotModified(journalChangeTracker.journalEtag(journalId.toHexString()))) {
+                log.debug("Journal entry {} not modified.", journalId);
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
+            log.debug("Fetching journal entry with ID: {}", journalId);
+            byte[] json = journalServices.findJournalJsonById(journalId); // Cached bytes are written as-is.
+            if (json == null) {
                 log.warn("Journal entry not found with ID: {}", journalId);
-                return ResponseEntity.status(404).body("Journal entry not found");
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Journal entry not found");
             }
-            log.info("Successfully retrieved journal entry with ID: {}", journalId);
-            return ResponseEntity.ok(response);
+            log.debug("Successfully retrieved journal entry with ID: {}", journalId);
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(json);
         } catch (Exception e) {
             log.error("Error fetching journal by ID", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -102,63 +224,133 @@ public class JournalController {
     public ResponseEntity<String> createEntry(
             @RequestParam("image") MultipartFile file,
             @ModelAttribute JournalModel journalEntry) {
+        StagedImage stagedImage = null;
+        boolean submitted = false; // Once submitted, the upload worker owns the staged file and its pool slot.
         try {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
             String userName = authentication.getName();
-            log.info("Creating a new journal entry for user: {}", userName);
+            log.debug("Creating a new journal entry for user: {}", userName);
             String imageUrl = "";
-            if (!file.isEmpty()) {
-                log.info("Uploading image for new journal entry...");
-                Map<String, Object> uploadResult = cloudinaryService.uploadImage(file);
-                imageUrl = (String) uploadResult.get("url");
+            journalEntry.setImageStatus(null);
+            journalEntry.setImage_variants(null);
+            if (!file.isEmpty() && imageUploadPipeline.isAsyncEnabled()) {
+                // Stage the image and save the entry right away; a worker uploads it and patches image_url.
+                stagedImage = imageUploadPipeline.stage(file);
+                journalEntry.setImageStatus(ImageStatus.PENDING);
+            } else if (!file.isEmpty()) {
+                log.debug("Uploading image for new journal entry...");
+                UploadedImage uploaded = imageUploadPipeline.uploadNow(file);
+                imageUrl = uploaded.getUrl();
                 if (imageUrl == null) {
                     log.error("Image upload failed for user: {}", userName);
                     return ResponseEntity.badRequest().body("Image upload failed");
                 }
                 log.info("Image uploaded successfully: {}", imageUrl);
+                journalEntry.setImage_variants(uploaded.getVariants());
+                journalEntry.setImageStatus(ImageStatus.READY);
             }
 
             ResponseEntity<?> journal = journalServices.saveJournalEntries(journalEntry, userName, (imageUrl));
+            if (stagedImage != null && journal.getBody() instanceof JournalModel) {
+                imageUploadPipeline.submit(((JournalModel) journal.getBody()).getId(), stagedImage, file.getOriginalFilename());
+                submitted = true;
+            }
             log.info("Journal entry created successfully for user: {}", userName);
             return ResponseEntity.status(HttpStatus.CREATED).body(journal + "Journal entry created successfully");
+        } catch (ResponseStatusException e) {
+            log.warn("Rejected journal entry: {}", e.getReason());
+            return ResponseEntity.status(e.getStatus()).body(e.getReason());
         } catch (Exception e) {
             log.error("Error creating a journal entry for user: {}", SecurityContextHolder.getContext().getAuthentication().getName(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An error occurred");
+        } finally {
+            if (stagedImage != null && !submitted) {
+                imageUploadPipeline.discard(stagedImage); // Not saved, or saving threw: free the file and the slot.
+            }
         }
     }
 
+    /**
+     * Endpoint applying a list of journal creates, updates and deletes in one request, e.g. offline edits being synced.
+     *
+     * @param operations The operations, applied independently of each other.
+     * @return HTTP 200 (OK) with one result per operation, in request order; 413 if the batch is too large.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> applyBatch(@RequestBody List<JournalBatchOperation> operations) {
+        try {
+            String userName = SecurityContextHolder.getContext().getAuthentication().getName();
+            List<JournalBatchResult> results = journalServices.applyBatch(userName, operations);
+            if (results == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
+            }
+            return ResponseEntity.ok(results);
+        } catch (ResponseStatusException e) {
+            log.warn("Rejected journal batch: {}", e.getReason());
+            return ResponseEntity.status(e.getStatus()).body(e.getReason());
+        } catch (Exception e) {
+            log.error("Error applying journal batch", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An error occurred");
+        }
+    }
+
+    /**
+     * Endpoint deleting a journal entry of the current user.
+     *
+     * @return HTTP 200 (OK) once deleted; 404 if there is no such entry, 401 if it belongs to another user,
+     * 409 (CONFLICT) if it was changed since it was read.
+     */
     @DeleteMapping("delete/id/{id}")
-    public ResponseEntity<String> deleteJournalById(@PathVariable ObjectId id) {
+    public ResponseEntity<?> deleteJournalById(@PathVariable ObjectId id) {
         try {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
             String userName = authentication.getName();
-            log.info("Attempting to delete journal entry with ID: {} for user: {}", id, userName);
+            log.debug("Attempting to delete journal entry with ID: {} for user: {}", id, userName);
 
-            boolean deleted = journalServices.deleteJournalById(id, userName).hasBody();
-            if (deleted) {
+            ResponseEntity<?> response = journalServices.deleteJournalById(id, userName);
+            if (response.getStatusCode().is2xxSuccessful()) {
                 log.info("Successfully deleted journal entry with ID: {} for user: {}", id, userName);
-                return ResponseEntity.ok("Journal entry deleted successfully");
             } else {
-                log.warn("Journal entry not found or deletion failed for ID: {}", id);
-                return ResponseEntity.notFound().build();
+                log.warn("Journal entry {} not deleted: {}", id, response.getStatusCode());
             }
+            return response;
         } catch (Exception e) {
             log.error("Error deleting journal entry with ID: {}", id, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An error occurred");
         }
     }
 
+    /**
+     * Endpoint changing only the provided fields of a journal entry, in one conditional database write.
+     *
+     * @param journalId The journal entry to change.
+     * @param patch The fields to set, and optionally the `updatedAt` or `version` the client last saw.
+     * @return HTTP 200 (OK) with the patched entry; 409 (CONFLICT) if `expectedUpdatedAt` or `expectedVersion` no longer matches.
+     */
+    @PatchMapping("/id/{journalId}")
+    public ResponseEntity<?> patchJournalEntry(@PathVariable ObjectId journalId, @RequestBody JournalPatch patch) {
+        try {
+            String userName = SecurityContextHolder.getContext().getAuthentication().getName();
+            return journalServices.patchJournalEntry(journalId, patch, userName);
+        } catch (Exception e) {
+            log.error("Error patching journal entry with ID: {}", journalId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An error occurred");
+        }
+    }
+
     @PutMapping("update/id/{journalId}")
     public ResponseEntity<?> updateJournalEntry(
             @PathVariable ObjectId journalId,
             @RequestParam(value = "image", required = false) MultipartFile file,
             @ModelAttribute JournalModel updatedJournal
     ) {
+        StagedImage stagedImage = null;
+        boolean submitted = false; // Once submitted, the upload worker owns the staged file and its pool slot.
         try {
             //Get the authenticated user
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
             String username = authentication.getName();
-            log.info("Updating journal entry with ID: {} for user: {}", journalId, username);
+            log.debug("Updating journal entry with ID: {} for user: {}", journalId, username);
 
             //fetch the user
             UserModel user = userServices.findByUserName(username);
@@ -169,26 +361,43 @@ public class JournalController {
 
             //Handle image upload if a new file is provided
             String imageUrl = null;
-            if (file != null && !file.isEmpty()) {
-                log.info("Uploading new image for journal entry update...");
-                Map<String, Object> uploadResult = cloudinaryService.uploadImage(file);
-                imageUrl = (String) uploadResult.get("url");
+            updatedJournal.setImage_variants(null);
+            if (file != null && !file.isEmpty() && imageUploadPipeline.isAsyncEnabled()) {
+                // Stage the image; it is uploaded in the background once the update is accepted.
+                stagedImage = imageUploadPipeline.stage(file);
+            } else if (file != null && !file.isEmpty()) {
+                log.debug("Uploading new image for journal entry update...");
+                UploadedImage uploaded = imageUploadPipeline.uploadNow(file);
+                imageUrl = uploaded.getUrl();
 
                 if (imageUrl == null) {
                     log.error("Image upload failed during journal update for user: {}", username);
                     return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Image uplload faild.");
                 }
+                updatedJournal.setImage_variants(uploaded.getVariants());
             }
             log.info("Image uploaded successfully for journal update: {}", imageUrl);
             //call the server method to update the journal entry
             ResponseEntity<?> response = journalServices.updateJournalEntry(journalId, updatedJournal, username, imageUrl);
+            if (stagedImage != null && response.getStatusCode().is2xxSuccessful()) {
+                journalServices.updateImage(journalId.toHexString(), null, ImageStatus.PENDING);
+                imageUploadPipeline.submit(journalId.toHexString(), stagedImage, file.getOriginalFilename());
+                submitted = true;
+            }
             log.info("Journal entry with ID: {} updated successfully for user: {}", journalId, username);
             return response;
 
+        } catch (ResponseStatusException e) {
+            log.warn("Rejected update of journal entry {}: {}", journalId, e.getReason());
+            return ResponseEntity.status(e.getStatus()).body(e.getReason());
         } catch (Exception e) {
             // Log the error
             log.error("Error updating journal entry with ID: {}", journalId, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An unexpected error occurred.");
+        } finally {
+            if (stagedImage != null && !submitted) {
+                imageUploadPipeline.discard(stagedImage); // Not updated, or updating threw: free the file and the slot.
+            }
         }
     }
 }
@@ -2,15 +2,15 @@ package net.backend.journalApp.controller;
 
 import lombok.extern.slf4j.Slf4j;
 import net.backend.journalApp.model.UserModel;
-import net.backend.journalApp.services.UserDetailsServiceImpl;
+import net.backend.journalApp.security.HashingCapacityExceededException;
 import net.backend.journalApp.services.UserServices;
 import net.backend.journalApp.utils.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 @RestController // Indicates that this class is a REST controller.
@@ -24,9 +24,6 @@ public class PublicController {
     @Autowired
     private AuthenticationManager authenticationManager; // Manages user authentication.
 
-    @Autowired
-    private UserDetailsServiceImpl userDetailsService; // Custom implementation of Spring Security's UserDetailsService.
-
     @Autowired
     private JwtUtil jwtUtil; // Utility class for generating and validating JWTs.
 
@@ -45,11 +42,12 @@ public class PublicController {
      *
      * @param user The user model containing user details (e.g., username, password).
      * @return HTTP 200 (OK) if the user is created successfully,
-     *         or HTTP 404 (NOT_FOUND) if user creation fails.
+     *         HTTP 404 (NOT_FOUND) if user creation fails,
+     *         or HTTP 503 (SERVICE_UNAVAILABLE) if password hashing is saturated.
      */
     @PostMapping("/signup")
     public ResponseEntity<?> createUser(@RequestBody UserModel user) {
-        log.info("Attempting to create a new user with username: {}", user.getUserName());
+        log.debug("Attempting to create a new user with username: {}", user.getUserName());
         try {
             boolean isUserSaved = userServices.saveNewUser(user);
             if (isUserSaved) {
@@ -58,6 +56,9 @@ public class PublicController {
             }
             log.warn("User creation failed for username: {}", user.getUserName());
             return new ResponseEntity<>("User creation failed.", HttpStatus.NOT_FOUND);
+        } catch (HashingCapacityExceededException e) {
+            log.warn("Signup of '{}' rejected: {}", user.getUserName(), e.getMessage());
+            return serviceBusy();
         } catch (Exception e) {
             log.error("Error occurred while creating user '{}': {}", user.getUserName(), e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -70,12 +71,12 @@ public class PublicController {
      *
      * @param user The user model containing username and password for authentication.
      * @return A JWT token in the response body with HTTP 200 (OK) if authentication is successful,
-     *         or throws an exception if authentication fails.
+     *         HTTP 503 (SERVICE_UNAVAILABLE) if password hashing is saturated, or throws an exception if authentication fails.
      * @throws Exception If an error occurs during authentication.
      */
     @PostMapping("/login")
     public ResponseEntity<String> login(@RequestBody UserModel user) throws Exception {
-            log.info("Attempting login for user: {}", user.getUserName());
+            log.debug("Attempting login for user: {}", user.getUserName());
 
        try {
             // Authenticate the user using the provided username and password.
@@ -83,18 +84,30 @@ public class PublicController {
                     new UsernamePasswordAuthenticationToken(user.getUserName(), user.getPassword())
             );
 
-            // Load user details after successful authentication.
-            UserDetails userDetails = userDetailsService.loadUserByUsername(user.getUserName());
+            // Load the user after successful authentication; self-contained tokens embed its roles and version.
+            UserModel authenticatedUser = userServices.findByUserName(user.getUserName());
 
             // Generate a JWT token for the authenticated user.
-            String jwt = jwtUtil.generateToken(userDetails.getUsername());
+            String jwt = jwtUtil.generateToken(authenticatedUser);
             log.info("Login successful for user: {}. JWT token generated.", user.getUserName());
             return new ResponseEntity<>(jwt, HttpStatus.OK);
+        } catch (HashingCapacityExceededException e) {
+            log.warn("Login of '{}' rejected: {}", user.getUserName(), e.getMessage());
+            return serviceBusy();
         } catch (Exception e) {
             log.error("Authentication failed for user '{}': {}", user.getUserName(), e.getMessage(), e);
             throw new Exception("Authentication failed.", e);
         }
     }
+
+    /**
+     * 503 for requests turned away because password hashing is saturated; clients should retry shortly.
+     */
+    private static ResponseEntity<String> serviceBusy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("Too many sign-in requests, please retry shortly.");
+    }
 }
 
 
@@ -0,0 +1,75 @@
+package net.backend.journalApp.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import net.backend.journalApp.model.JournalModel;
+import net.backend.journalApp.services.ReactiveJournalServices;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking read endpoints for journals.
+ *
+ * Handlers return a Flux or Mono instead of a value: the servlet thread is released as soon as the
+ * handler returns, and entries are written as newline-delimited JSON while the reactive Mongo cursor
+ * produces them, one request at a time, so a slow client holds neither a thread nor a buffered list.
+ * The endpoints live under `/api/v1/journal/**` and are therefore authenticated by `JwtFilter`
+ * exactly like the blocking ones; the caller's name is read on the request thread before streaming.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/journal/reactive")
+public class ReactiveJournalController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    @Autowired
+    private ReactiveJournalServices reactiveJournalServices;
+
+    /**
+     * Streams one page of journal entries, newest first.
+     *
+     * @param afterId Id of the last entry of the previous page (each streamed entry carries its id); omit it for the first page.
+     * @param limit Maximum number of entries to stream.
+     */
+    @GetMapping(value = "/journals", produces = NDJSON)
+    public Flux<JournalModel> getJournalsPage(
+            @RequestParam(value = "afterId", required = false) ObjectId afterId,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        log.debug("Streaming journals page. After: {}, limit: {}", afterId, limit);
+        return reactiveJournalServices.findJournalsPage(afterId, limit)
+                .doOnError(e -> log.error("Error streaming journals page", e));
+    }
+
+    /**
+     * Streams every journal entry of the authenticated user, newest first.
+     */
+    @GetMapping(value = "/user-journals", produces = NDJSON)
+    public Flux<JournalModel> getUserJournals() {
+        String userName = SecurityContextHolder.getContext().getAuthentication().getName();
+        log.debug("Streaming journal entries for user: {}", userName);
+        return reactiveJournalServices.findJournalsByUserName(userName)
+                .doOnError(e -> log.error("Error streaming journals of user: {}", userName, e));
+    }
+
+    /**
+     * Fetches one journal entry without blocking a thread on the database.
+     *
+     * @return HTTP 200 (OK) with the entry, or 404 (NOT_FOUND) if it does not exist.
+     */
+    @GetMapping("/id/{journalId}")
+    public Mono<ResponseEntity<JournalModel>> getJournalById(@PathVariable ObjectId journalId) {
+        log.debug("Fetching journal entry reactively with ID: {}", journalId);
+        return reactiveJournalServices.findJournalById(journalId)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,23 @@
+package net.backend.journalApp.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+/**
+ * Turns uploads rejected by the multipart limits into a 413 response.
+ * These are raised while the request body is parsed, before any controller method runs.
+ */
+@Slf4j
+@RestControllerAdvice
+public class UploadExceptionHandler {
+
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    public ResponseEntity<String> handleMaxUploadSizeExceeded(MaxUploadSizeExceededException e) {
+        log.warn("Rejected oversized upload: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body("Upload exceeds the maximum allowed size.");
+    }
+}
@@ -45,15 +45,13 @@ public class UserController {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String userName = authentication.getName(); // Retrieves the username from the authentication context.
 
-        log.info("User '{}' attempting to update their profile.", userName);
+        log.debug("User '{}' attempting to update their profile.", userName);
 
         // Finds the existing user by username.
         UserModel isUser = userServices.findByUserName(userName);
         if (isUser != null) {
-            // Update the user's details with the new ones.
-            isUser.setUserName(user.getUserName());
-            isUser.setPassword(user.getPassword());
-            userServices.saveNewUser(isUser); // Save the updated user.
+            // Update the user's details with the new ones; this also invalidates the cached login for both names.
+            userServices.updateUserDetails(new ObjectId(isUser.getId()), user.getUserName(), user.getPassword());
             log.info("User '{}' updated successfully.", userName);
             return new ResponseEntity<>("User updated successfully.", HttpStatus.OK); // Return HTTP 200 if the update is successful.
         }
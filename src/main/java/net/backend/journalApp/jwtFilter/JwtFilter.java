@@ -1,19 +1,29 @@
 package net.backend.journalApp.jwtFilter;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import net.backend.journalApp.cache.UserVersionTable;
+import net.backend.journalApp.logging.RequestLoggingFilter;
 import net.backend.journalApp.utils.JwtUtil;
+import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
+import javax.annotation.PostConstruct;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Component // Marks this class as a Spring component to be managed by Spring's context.
@@ -25,6 +35,25 @@ public class JwtFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtil jwtUtil; // Utility class to handle JWT (JSON Web Token) operations.
 
+    @Autowired
+    private UserVersionTable userVersionTable; // Revocations of self-contained tokens after credential changes.
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Timer parseTimer; // Token parsing and signature verification.
+
+    private Timer userLoadTimer; // Loading the user, from the database or from self-contained claims.
+
+    private Timer validateTimer; // Checking the verified claims against the loaded user.
+
+    @PostConstruct
+    public void init() {
+        parseTimer = Timer.builder("jwt.filter").tag("phase", "parse").register(meterRegistry);
+        userLoadTimer = Timer.builder("jwt.filter").tag("phase", "user_load").register(meterRegistry);
+        validateTimer = Timer.builder("jwt.filter").tag("phase", "validate").register(meterRegistry);
+    }
+
     /**
      * This method intercepts the request to check the presence and validity of a JWT token.
      * If the token is valid, it sets the authentication in the security context.
@@ -41,26 +70,43 @@ public class JwtFilter extends OncePerRequestFilter {
         // Get the "Authorization" header from the request.
         String authorizationHeader = request.getHeader("Authorization");
         String username = null;
-        String jwt = null;
+        Claims claims = null;
 
-        // If the Authorization header is present and starts with "Bearer ", extract the token.
+        // If the Authorization header is present and starts with "Bearer ", verify the token once.
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7); // Extract the token (after "Bearer ").
-            username = jwtUtil.extractUsername(jwt); // Extract the username from the token.
-            log.info("JWT token detected in request. Extracted username: {}", username);
+            String jwt = authorizationHeader.substring(7); // Extract the token (after "Bearer ").
+            long start = System.nanoTime();
+            claims = jwtUtil.verifyToken(jwt); // Parse and verify the signature, or reuse a cached verification.
+            parseTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (claims != null) {
+                username = claims.getSubject(); // Extract the username from the verified claims.
+            }
+            log.debug("JWT token detected in request. Extracted username: {}", username);
         }else {
-            log.warn("No JWT token found in request or token format is incorrect.");
+            log.debug("No JWT token found in request or token format is incorrect.");
         }
 
         // If a username is extracted from the token, validate it and set the authentication context.
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) { // make changes*****************
-            log.info("Validating JWT token for user: {}", username);
+            log.debug("Validating JWT token for user: {}", username);
 
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username); // Load the user details using the username.
+            UserDetails userDetails;
+            long start = System.nanoTime();
+            if (jwtUtil.isSelfContained() && JwtUtil.hasEmbeddedRoles(claims)) {
+                // Self-contained token: the verified claims already carry the roles, no user lookup needed.
+                userDetails = userFromClaims(claims);
+                userLoadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            } else {
+                UserDetails loaded = userDetailsService.loadUserByUsername(username); // Load the user details using the username.
+                long loadedAt = System.nanoTime();
+                userLoadTimer.record(loadedAt - start, TimeUnit.NANOSECONDS);
+                userDetails = jwtUtil.validateToken(claims, loaded) ? loaded : null;
+                validateTimer.record(System.nanoTime() - loadedAt, TimeUnit.NANOSECONDS);
+            }
 
             // If the JWT token is valid, authenticate the user.
-            if (jwtUtil.validateToken(jwt, userDetails)) {
-                log.info("JWT token validated successfully for user: {}", username);
+            if (userDetails != null) {
+                log.debug("JWT token validated successfully for user: {}", username);
 
                 // Create an authentication token for the user with the authorities/roles.
                 UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
@@ -68,7 +114,8 @@ public class JwtFilter extends OncePerRequestFilter {
 
                 // Set the authentication in the SecurityContext so that it can be accessed later in the request cycle.
                 SecurityContextHolder.getContext().setAuthentication(auth);
-                log.info("User '{}' is now authenticated.", username);
+                MDC.put(RequestLoggingFilter.MDC_USER, username); // Reported in the request summary line.
+                log.debug("User '{}' is now authenticated.", username);
             } else {
                 log.warn("Invalid JWT token for user: {}", username);
             }
@@ -78,6 +125,27 @@ public class JwtFilter extends OncePerRequestFilter {
         log.debug("Proceeding with request processing.");
         chain.doFilter(request, response);
     }
-}
-
 
+    /**
+     * Builds the principal of a self-contained token from its verified claims.
+     *
+     * @return The user, or null if the token was issued for a user version that has since been revoked.
+     */
+    private UserDetails userFromClaims(Claims claims) {
+        String username = claims.getSubject();
+        long version = ((Number) claims.get(JwtUtil.USER_VERSION_CLAIM)).longValue();
+        if (!userVersionTable.isCurrent((String) claims.get(JwtUtil.USER_ID_CLAIM), version)) {
+            log.warn("Self-contained JWT for user '{}' was issued for a revoked version: {}", username, version);
+            return null;
+        }
+        List<?> roles = (List<?>) claims.get(JwtUtil.ROLES_CLAIM);
+        String[] roleNames = new String[roles.size()];
+        for (int i = 0; i < roleNames.length; i++) {
+            roleNames[i] = String.valueOf(roles.get(i));
+        }
+        return User.withUsername(username)
+                .password("") // Credentials are never needed once the token is verified.
+                .roles(roleNames)
+                .build();
+    }
+}
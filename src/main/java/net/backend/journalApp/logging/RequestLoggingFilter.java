@@ -0,0 +1,79 @@
+package net.backend.journalApp.logging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Outermost filter that decides whether a request's detailed logs are kept and writes one summary line per request.
+ *
+ * The decision is stored in the MDC, where {@link RequestSamplingTurboFilter} reads it to drop the DEBUG and
+ * INFO events of unsampled requests before they are formatted; WARN and ERROR always pass. The summary line
+ * is logged for every request, sampled or not, on the `net.backend.journalApp.requests` logger.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE) // Runs before the security filters, so their logs are sampled too.
+public class RequestLoggingFilter extends OncePerRequestFilter {
+
+    public static final String SUMMARY_LOGGER = "net.backend.journalApp.requests";
+
+    public static final String MDC_REQUEST_ID = "requestId";
+
+    public static final String MDC_SAMPLED = "sampled";
+
+    public static final String MDC_USER = "user"; // Set by JwtFilter once the caller is authenticated.
+
+    private static final Logger summaryLog = LoggerFactory.getLogger(SUMMARY_LOGGER);
+
+    @Value("${logging.request.sample-rate:1.0}")
+    private double sampleRate; // Fraction of requests whose INFO and DEBUG logs are kept.
+
+    @Value("${logging.request.summary.enabled:true}")
+    private boolean summaryEnabled;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws ServletException, IOException {
+        long start = System.nanoTime();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        boolean sampled = sampleRate >= 1.0 || random.nextDouble() < sampleRate;
+        String requestId = Long.toHexString(random.nextLong());
+        MDC.put(MDC_REQUEST_ID, requestId);
+        MDC.put(MDC_SAMPLED, Boolean.toString(sampled));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (summaryEnabled) {
+                logSummary(request, response, (System.nanoTime() - start) / 1_000_000);
+            }
+            MDC.remove(MDC_REQUEST_ID);
+            MDC.remove(MDC_SAMPLED);
+            MDC.remove(MDC_USER);
+        }
+    }
+
+    // For async requests (e.g. the NDJSON export) this runs when the handler returns, not when the body is complete.
+    private void logSummary(HttpServletRequest request, HttpServletResponse response, long durationMs) {
+        int status = response.getStatus();
+        String user = MDC.get(MDC_USER);
+        String format = "method={} path={} status={} durationMs={} user={} async={}";
+        Object[] args = {request.getMethod(), request.getRequestURI(), status, durationMs,
+                user != null ? user : "-", request.isAsyncStarted()};
+        if (status >= 500) {
+            summaryLog.warn(format, args); // Never discarded by the async appender.
+        } else {
+            summaryLog.info(format, args);
+        }
+    }
+}
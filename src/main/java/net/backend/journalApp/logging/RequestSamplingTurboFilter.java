@@ -0,0 +1,38 @@
+package net.backend.journalApp.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+/**
+ * Logback turbo filter that drops the DEBUG and INFO events of requests not picked for sampling
+ * by {@link RequestLoggingFilter}. It runs before an event is created, so dropped events cost no
+ * formatting, and it only touches application loggers while a request is being served: WARN and
+ * above, the request summary line and logs outside a request always pass.
+ */
+public class RequestSamplingTurboFilter extends TurboFilter {
+
+    private String loggerPrefix = "net.backend.journalApp."; // Only these loggers are sampled.
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (level == null || level.isGreaterOrEqual(Level.WARN)) {
+            return FilterReply.NEUTRAL;
+        }
+        if (!"false".equals(MDC.get(RequestLoggingFilter.MDC_SAMPLED))) {
+            return FilterReply.NEUTRAL;
+        }
+        String name = logger.getName();
+        if (!name.startsWith(loggerPrefix) || name.equals(RequestLoggingFilter.SUMMARY_LOGGER)) {
+            return FilterReply.NEUTRAL;
+        }
+        return FilterReply.DENY;
+    }
+
+    public void setLoggerPrefix(String loggerPrefix) {
+        this.loggerPrefix = loggerPrefix;
+    }
+}
@@ -0,0 +1,147 @@
+package net.backend.journalApp.migration;
+
+import com.mongodb.DBRef;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import lombok.extern.slf4j.Slf4j;
+import net.backend.journalApp.cache.JournalChangeTracker;
+import net.backend.journalApp.model.JournalModel;
+import net.backend.journalApp.model.UserModel;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One-off migration that moves journal ownership from the legacy `UserModel.journalEntries`
+ * DBRef array onto the indexed `JournalModel.ownerId` field.
+ *
+ * Users are read raw (only `_id` and `journalEntries`) so no reference is ever resolved.
+ * For each user the referenced journals get their `ownerId` set in chunks through bulk writes,
+ * and only once those have been applied is the legacy array unset. The job is idempotent:
+ * a user is only visited while it still carries the array, so an interrupted run simply
+ * resumes on the next startup and a finished one costs a single empty query.
+ */
+@Slf4j
+@Component
+public class JournalOwnerBackfillJob implements ApplicationRunner {
+
+    private static final String LEGACY_FIELD = "journalEntries";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private JournalChangeTracker journalChangeTracker;
+
+    @Value("${journal.migration.owner-backfill.enabled:true}")
+    private boolean enabled;
+
+    @Value("${journal.migration.owner-backfill.batch-size:500}")
+    private int batchSize; // Journal ids per update and write operations per bulk request.
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            log.info("Journal owner backfill is disabled.");
+            return;
+        }
+        log.info("Starting journal owner backfill with batch size: {}", batchSize);
+
+        String userCollection = mongoTemplate.getCollectionName(UserModel.class);
+        BulkOperations journalBulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, JournalModel.class);
+        BulkOperations userBulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UserModel.class);
+        int pendingJournalOps = 0;
+        int pendingUserOps = 0;
+        long users = 0;
+        long journals = 0;
+
+        try (MongoCursor<Document> cursor = mongoTemplate.getCollection(userCollection)
+                .find(Filters.exists(LEGACY_FIELD))
+                .projection(Projections.include(LEGACY_FIELD))
+                .batchSize(batchSize)
+                .iterator()) {
+
+            while (cursor.hasNext()) {
+                Document user = cursor.next();
+                ObjectId userId = user.getObjectId("_id");
+                List<ObjectId> journalIds = referencedIds(user.get(LEGACY_FIELD));
+
+                for (int from = 0; from < journalIds.size(); from += batchSize) {
+                    List<ObjectId> chunk = journalIds.subList(from, Math.min(from + batchSize, journalIds.size()));
+                    journalBulk.updateMulti(Query.query(Criteria.where("_id").in(chunk)),
+                            Update.update("ownerId", userId.toHexString()));
+                    pendingJournalOps++;
+                }
+                userBulk.updateOne(Query.query(Criteria.where("_id").is(userId)), new Update().unset(LEGACY_FIELD));
+                pendingUserOps++;
+
+                users++;
+                journals += journalIds.size();
+
+                if (pendingJournalOps + pendingUserOps >= batchSize) {
+                    flush(journalBulk, pendingJournalOps, userBulk, pendingUserOps);
+                    journalBulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, JournalModel.class);
+                    userBulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UserModel.class);
+                    pendingJournalOps = 0;
+                    pendingUserOps = 0;
+                }
+            }
+        }
+
+        flush(journalBulk, pendingJournalOps, userBulk, pendingUserOps);
+        if (users > 0) {
+            journalChangeTracker.invalidateAll(); // Journals changed behind the service layer.
+        }
+        log.info("Journal owner backfill finished. Users migrated: {}, journals updated: {}", users, journals);
+    }
+
+    /**
+     * Applies the queued owner updates before dropping the arrays they were read from,
+     * so a failed journal write leaves the user to be retried on the next run.
+     * A bulk with nothing queued is skipped: the driver rejects an empty one, e.g. for a batch
+     * of users whose arrays were all empty.
+     */
+    private static void flush(BulkOperations journalBulk, int journalOps, BulkOperations userBulk, int userOps) {
+        if (journalOps > 0) {
+            journalBulk.execute();
+        }
+        if (userOps > 0) {
+            userBulk.execute();
+        }
+    }
+
+    /**
+     * Extracts the journal ids from a raw DBRef array, whichever way the driver decoded the references.
+     */
+    private static List<ObjectId> referencedIds(Object refs) {
+        List<ObjectId> ids = new ArrayList<>();
+        if (!(refs instanceof List)) {
+            return ids;
+        }
+        for (Object ref : (List<?>) refs) {
+            Object id = null;
+            if (ref instanceof DBRef) {
+                id = ((DBRef) ref).getId();
+            } else if (ref instanceof Document) {
+                id = ((Document) ref).get("$id");
+            }
+            if (id instanceof ObjectId) {
+                ids.add((ObjectId) id);
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,126 @@
+package net.backend.journalApp.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import net.backend.journalApp.cache.JournalChangeTracker;
+import net.backend.journalApp.cache.JournalJsonCache;
+import net.backend.journalApp.model.JournalModel;
+import net.backend.journalApp.services.CategoryCounterService;
+import net.backend.journalApp.services.ClusterLockService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Repair sweep for the journal write path, run on `journal.repair.cron` by one instance at a time.
+ *
+ * It gives journals written before `JournalModel.version` existed their initial version, so
+ * versioned saves never mistake them for new entries; this step also runs at startup, before the
+ * first versioned save. In the atomic write mode, where a journal and the counters derived from it
+ * are not written together, the scheduled sweep also corrects counters that drifted from the
+ * journals, so a write interrupted between the two is repaired within one period. The correction
+ * is a compare-and-set delta per drifted counter, so it never overwrites concurrent `$inc` writes.
+ * Both steps are idempotent; a sweep with nothing to repair costs one indexed update and, in the
+ * atomic mode, one aggregation.
+ */
+@Slf4j
+@Component
+public class JournalRepairJob implements ApplicationRunner {
+
+    private static final String REPAIR_LOCK = "journal-repair";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CategoryCounterService categoryCounterService;
+
+    @Autowired
+    private ClusterLockService clusterLockService;
+
+    @Autowired
+    private JournalChangeTracker journalChangeTracker;
+
+    @Autowired
+    private JournalJsonCache journalJsonCache;
+
+    @Value("${journal.repair.enabled:true}")
+    private boolean enabled;
+
+    @Value("${journal.write-mode:transactional}")
+    private String writeMode;
+
+    @Value("${journal.repair.lock.max-hold-ms:3600000}")
+    private long lockMaxHoldMillis; // A sweep taking longer may overlap with the next one.
+
+    @Value("${journal.repair.lock.min-hold-ms:60000}")
+    private long lockMinHoldMillis; // Keeps instances firing the same cron a little later from repeating the sweep.
+
+    /**
+     * Backfills versions only; counters are left to the scheduled sweep, so a rolling restart does not
+     * trigger one correction per instance.
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            log.debug("Journal repair sweep is disabled.");
+            return;
+        }
+        backfillVersions();
+    }
+
+    @Scheduled(cron = "${journal.repair.cron:0 15 * * * *}")
+    public void scheduledRepair() {
+        try {
+            repair();
+        } catch (Exception e) {
+            log.error("Journal repair sweep failed; retrying on the next run", e);
+        }
+    }
+
+    /**
+     * Runs one sweep, unless another instance is running one.
+     *
+     * @return true if this instance ran the sweep.
+     */
+    public boolean repair() {
+        if (!enabled) {
+            log.debug("Journal repair sweep is disabled.");
+            return false;
+        }
+        if (!clusterLockService.tryAcquire(REPAIR_LOCK, lockMaxHoldMillis)) {
+            log.info("Journal repair sweep is running on another instance; skipping.");
+            return false;
+        }
+        try {
+            backfillVersions();
+            if ("atomic".equals(writeMode)) {
+                categoryCounterService.reconcile();
+            }
+            return true;
+        } finally {
+            clusterLockService.release(REPAIR_LOCK, lockMinHoldMillis);
+        }
+    }
+
+    /**
+     * Gives unversioned journals version 0. Safe to run concurrently: the filter only matches journals
+     * that still lack a version.
+     */
+    private void backfillVersions() {
+        long versioned = mongoTemplate.updateMulti(Query.query(Criteria.where("version").exists(false)),
+                Update.update("version", 0L), JournalModel.class).getModifiedCount();
+        if (versioned > 0) {
+            // Journals changed behind the service layer, and their cached representations lack the version.
+            journalChangeTracker.invalidateAll();
+            journalJsonCache.clear();
+            log.info("Journal repair sweep: {} journals given an initial version", versioned);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package net.backend.journalApp.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Materialized number of journal entries in one category, either for one user or across all users.
+ * Maintained with atomic `$inc` on every journal write and rebuilt periodically by reconciliation.
+ */
+@Document(collection = "journal_category_counts")
+@Data
+@NoArgsConstructor
+public class CategoryCountModel {
+
+    public static final String ALL_USERS = "*"; // Owner scope of the overall counters.
+
+    @Id
+    private String id; // "<ownerId or *>|<category>", so each counter is a single upsert by _id.
+
+    @Indexed // Facet reads fetch all counters of one scope.
+    private String ownerId;
+
+    private String category;
+
+    private long count;
+
+    private long reconciledAt; // Run stamp of the last reconciliation that corrected this counter.
+}
@@ -2,8 +2,11 @@ package net.backend.journalApp.model;
 
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.time.LocalDateTime;
+
 
 @Document
 @Data
@@ -12,4 +15,7 @@ public class ConfigJournalAppModel{
 
     private String key;
     private String value;
-}
\ No newline at end of file
+
+    @Indexed // Lets AppCache fetch only the settings changed since its last refresh.
+    private LocalDateTime updatedAt; // Must be set whenever the value is changed, for the change to be picked up without a full reload.
+}
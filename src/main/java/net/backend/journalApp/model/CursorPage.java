@@ -0,0 +1,19 @@
+package net.backend.journalApp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing.
+ * `nextCursor` is an opaque token to pass back for the following page; it is null on the last page.
+ */
+@Data
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    private List<T> items; // The documents on this page, in listing order.
+
+    private String nextCursor; // Opaque token for the next page, or null when there are no more results.
+}
@@ -0,0 +1,30 @@
+package net.backend.journalApp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Maps the SHA-256 of uploaded image content to where that content is already stored,
+ * so identical images are uploaded only once.
+ */
+@Document(collection = "image_hashes")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageHashModel {
+
+    @Id
+    private String sha256; // Hex SHA-256 of the original upload.
+
+    private String url; // URL of the stored full-size image.
+
+    private Map<String, String> variants; // URLs of the resized variants generated from it.
+
+    private LocalDateTime createdAt; // When the content was first uploaded.
+}
@@ -0,0 +1,10 @@
+package net.backend.journalApp.model;
+
+/**
+ * Lifecycle of a journal entry's image when uploads run in the background.
+ */
+public enum ImageStatus {
+    PENDING, // Staged locally; the upload has not completed yet.
+    READY,   // Uploaded; `image_url` points to the stored image.
+    FAILED   // Every upload attempt failed; the entry has no image.
+}
@@ -0,0 +1,27 @@
+package net.backend.journalApp.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One create, update or delete in a journal batch request.
+ * Updates change only the fields that are provided; creates require a title.
+ */
+@Data
+@NoArgsConstructor
+public class JournalBatchOperation {
+
+    public enum Type {
+        CREATE, UPDATE, DELETE
+    }
+
+    private Type op; // What to do with this item.
+
+    private String id; // The journal to update or delete; ignored for creates.
+
+    private String title;
+
+    private String content;
+
+    private String journal_category;
+}
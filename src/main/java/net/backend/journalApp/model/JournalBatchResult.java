@@ -0,0 +1,20 @@
+package net.backend.journalApp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Outcome of one item of a journal batch request, in request order.
+ */
+@Data
+@AllArgsConstructor
+public class JournalBatchResult {
+
+    private int index; // Position of the operation in the request.
+
+    private String id; // The journal affected; for creates, the id it was given.
+
+    private int status; // HTTP status the operation would have had on its own endpoint.
+
+    private String error; // Why the operation was not applied; null on success.
+}
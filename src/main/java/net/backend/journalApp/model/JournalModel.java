@@ -5,12 +5,17 @@ import org.bson.types.ObjectId;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
 @Builder
 @Document(collection="journals") // Marks this class as a MongoDB document, specifying that it will be mapped to the "journals" collection.
+@CompoundIndex(name = "owner_created_idx", def = "{'ownerId': 1, 'createdAt': -1}") // Serves per-user listings and ownership checks.
 @Data   // Lombok annotation that automatically generates getters, setters, toString, equals, and hashCode methods.
 //@NoArgsConstructor  // Lombok annotation that generates a no-argument constructor for the class.
 public class JournalModel {
@@ -25,8 +30,18 @@ public class JournalModel {
 
     private  String image_url;
 
+    private Map<String, String> image_variants; // Resized copies of the image by name (e.g. "thumb"), for list views.
+
+    @Indexed
+    private ImageStatus imageStatus; // Upload state of the image; null when the entry has no image. Indexed for the stale PENDING sweep.
+
     private String journal_category;
 
+    private String ownerId; // The id of the user who owns this journal entry.
+
+    @Version
+    private Long version; // Optimistic lock: a save fails if the stored version moved since the entry was read.
+
 //    @Builder.Default
 //    private int likes = 0;
 
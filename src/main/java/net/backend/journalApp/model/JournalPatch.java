@@ -0,0 +1,28 @@
+package net.backend.journalApp.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Body of a journal PATCH: only the fields that are present are changed.
+ */
+@Data
+@NoArgsConstructor
+public class JournalPatch {
+
+    private String title;
+
+    private String content;
+
+    private String journal_category;
+
+    private LocalDateTime expectedUpdatedAt; // Optional; the patch is only applied if the entry was not changed since.
+
+    private Long expectedVersion; // Optional; the patch is only applied if the entry is still at this version.
+
+    public boolean isEmpty() {
+        return title == null && content == null && journal_category == null;
+    }
+}
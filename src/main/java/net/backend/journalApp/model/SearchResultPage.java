@@ -0,0 +1,24 @@
+package net.backend.journalApp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One page of journal search results, best match first.
+ */
+@Data
+@AllArgsConstructor
+public class SearchResultPage {
+
+    private String query; // The query as submitted.
+
+    private int page; // Zero-based page number.
+
+    private int size; // Page size used.
+
+    private int total; // Number of journals matching the query overall.
+
+    private List<JournalModel> items; // The journals on this page, in rank order.
+}
@@ -0,0 +1,20 @@
+package net.backend.journalApp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.file.Path;
+
+/**
+ * An uploaded image copied to the local staging directory, with the content hash computed while copying.
+ */
+@Data
+@AllArgsConstructor
+public class StagedImage {
+
+    private Path path; // Location of the staged file.
+
+    private String sha256; // Hex SHA-256 of the file content, used to deduplicate uploads.
+
+    private long size; // Size of the file in bytes.
+}
@@ -0,0 +1,18 @@
+package net.backend.journalApp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * Where an uploaded journal image ended up: the main URL and the URLs of its resized variants.
+ */
+@Data
+@AllArgsConstructor
+public class UploadedImage {
+
+    private String url; // URL of the full-size image.
+
+    private Map<String, String> variants; // Variant name (e.g. "thumb") -> URL; empty when no variants were made.
+}
@@ -6,11 +6,9 @@ import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.mongodb.core.index.Indexed;
-import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 
 @Document // Marks this class as a MongoDB document. It will be stored in a collection named "user" by default.
@@ -27,11 +25,10 @@ public class UserModel {
     @NonNull
     private String password;  // The user's password. It's marked as non-null, indicating it is a required field.
 
-    @DBRef // Represents a reference to other MongoDB documents, in this case, the user's journal entries.
-    private List<JournalModel> journalEntries = new ArrayList<>();  // List of journal entries associated with the user.
-
     private List<String> roles;  // List of roles associated with the user (e.g., "USER", "ADMIN").
 
+    private long tokenVersion;  // Bumped when the password or roles change; self-contained tokens carry it to detect revocation.
+
     @CreatedDate // Automatically sets the value of createdAt when the document is first saved to MongoDB.
     private LocalDateTime createdAt;  // Timestamp for when the user was created.
 
@@ -0,0 +1,30 @@
+package net.backend.journalApp.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Read-only projection of a user for admin listings.
+ * Only the summary fields are read from the users collection, so password hashes never leave the database.
+ */
+@Data
+@NoArgsConstructor
+public class UserSummary {
+
+    @Id
+    private String id; // Id of the user document.
+
+    private String userName; // The user's unique username.
+
+    private List<String> roles; // Roles granted to the user.
+
+    private LocalDateTime createdAt; // When the user signed up.
+
+    @Transient
+    private long journalCount; // Number of journal entries owned by the user; filled in from the journals collection.
+}
@@ -4,7 +4,12 @@ import net.backend.journalApp.model.ConfigJournalAppModel;
 import org.bson.types.ObjectId;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 
 public interface ConfigJournalAppRepository extends MongoRepository<ConfigJournalAppModel, ObjectId> {
 
-}
\ No newline at end of file
+    // Settings changed at or after the given instant, for incremental cache refreshes.
+    List<ConfigJournalAppModel> findByUpdatedAtGreaterThanEqual(LocalDateTime since);
+}
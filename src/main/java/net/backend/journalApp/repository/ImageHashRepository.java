@@ -0,0 +1,7 @@
+package net.backend.journalApp.repository;
+
+import net.backend.journalApp.model.ImageHashModel;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface ImageHashRepository extends MongoRepository<ImageHashModel, String> {
+}
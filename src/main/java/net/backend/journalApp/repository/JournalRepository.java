@@ -2,9 +2,27 @@ package net.backend.journalApp.repository;
 
 import net.backend.journalApp.model.JournalModel;
 import org.bson.types.ObjectId;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+
+import java.util.List;
+import java.util.stream.Stream;
 
 public interface JournalRepository extends MongoRepository<JournalModel, ObjectId> {
+
+    // First page of a keyset listing; sort and limit come from the Pageable.
+    List<JournalModel> findAllBy(Pageable pageable);
+
+    // Following pages of a keyset listing, starting strictly after the cursor id.
+    List<JournalModel> findByIdLessThan(ObjectId id, Pageable pageable);
+
+    // All journals of one user, newest first; served by the (ownerId, createdAt) index.
+    List<JournalModel> findByOwnerIdOrderByCreatedAtDesc(String ownerId);
+
+    // Every journal with only the fields the search index needs; the caller must close the stream.
+    @Query(value = "{}", fields = "{ 'title': 1, 'content': 1 }")
+    Stream<JournalModel> streamAllBy();
 }
 
 
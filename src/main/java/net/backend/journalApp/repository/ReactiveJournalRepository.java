@@ -0,0 +1,23 @@
+package net.backend.journalApp.repository;
+
+import net.backend.journalApp.model.JournalModel;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Non-blocking counterpart of {@link JournalRepository} for the streaming read endpoints.
+ * Results are emitted as the driver receives them, at the pace the subscriber requests.
+ */
+public interface ReactiveJournalRepository extends ReactiveMongoRepository<JournalModel, ObjectId> {
+
+    // First page of a keyset listing; sort and limit come from the Pageable.
+    Flux<JournalModel> findAllBy(Pageable pageable);
+
+    // Following pages of a keyset listing, starting strictly after the given id.
+    Flux<JournalModel> findByIdLessThan(ObjectId id, Pageable pageable);
+
+    // All journals of one user, newest first; served by the (ownerId, createdAt) index.
+    Flux<JournalModel> findByOwnerIdOrderByCreatedAtDesc(String ownerId);
+}
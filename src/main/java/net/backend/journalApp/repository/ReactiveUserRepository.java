@@ -0,0 +1,13 @@
+package net.backend.journalApp.repository;
+
+import net.backend.journalApp.model.UserModel;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking user lookups for the streaming read endpoints.
+ */
+public interface ReactiveUserRepository extends ReactiveMongoRepository<UserModel, String> {
+
+    Mono<UserModel> findByUserName(String userName);
+}
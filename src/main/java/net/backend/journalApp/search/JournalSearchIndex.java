@@ -0,0 +1,273 @@
+package net.backend.journalApp.search;
+
+import lombok.extern.slf4j.Slf4j;
+import net.backend.journalApp.model.JournalModel;
+import net.backend.journalApp.repository.JournalRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index over journal titles and contents.
+ *
+ * Each term maps to a posting list of journal ids with the term's frequency in that journal;
+ * title terms count {@value #TITLE_WEIGHT} times so title matches rank higher. Queries score
+ * candidates with TF-IDF over the posting lists of the query terms only, so their cost depends
+ * on how common the terms are, not on the corpus size.
+ *
+ * Only the posting lists are kept, plus the version each journal was indexed at. To unindex a journal,
+ * its terms are derived again from the text it had at that version, which the caller passes in; if the
+ * caller's text is of another version (writes racing each other, or entries without a version) the
+ * journal is removed from every posting list instead, which is exact but scans the whole vocabulary.
+ *
+ * The index is built in the background at startup by streaming the journals collection, and kept
+ * current by JournalServices through {@link #index(JournalModel, JournalModel)} and {@link #remove(JournalModel)}.
+ * Until the build has finished, {@link #isReady()} is false and searches go to the database instead.
+ * Writes are serialized; reads are lock-free.
+ */
+@Slf4j
+@Component
+public class JournalSearchIndex {
+
+    private static final int TITLE_WEIGHT = 3;
+
+    private static final int MIN_TOKEN_LENGTH = 2;
+
+    private static final long UNVERSIONED = -1; // Indexed from an entry written before versions existed.
+
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "if", "in", "into", "is", "it",
+            "no", "not", "of", "on", "or", "so", "such", "that", "the", "their", "then", "there", "these",
+            "they", "this", "to", "was", "will", "with"));
+
+    @Autowired
+    private JournalRepository journalRepository;
+
+    @Value("${journal.search.enabled:true}")
+    private boolean enabled;
+
+    private final Map<String, Map<String, Integer>> postings = new ConcurrentHashMap<>(); // Term -> (journal id -> weighted term frequency).
+
+    private final Map<String, Long> versions = new ConcurrentHashMap<>(); // Journal id -> version indexed, or UNVERSIONED.
+
+    private Set<String> touchedDuringBuild; // Ids changed while the initial build runs; the build must not overwrite them.
+
+    private volatile boolean ready;
+
+    /**
+     * Builds the index in the background once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (!enabled) {
+            log.info("Journal search index is disabled.");
+            return;
+        }
+        synchronized (this) {
+            touchedDuringBuild = new HashSet<>();
+        }
+        Thread builder = new Thread(this::build, "journal-search-index-builder");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    private void build() {
+        long started = System.currentTimeMillis();
+        long count = 0;
+        try (Stream<JournalModel> journals = journalRepository.streamAllBy()) {
+            Iterable<JournalModel> iterable = journals::iterator;
+            for (JournalModel journal : iterable) {
+                synchronized (this) {
+                    if (!touchedDuringBuild.contains(journal.getId())) {
+                        add(journal);
+                    }
+                }
+                count++;
+            }
+            ready = true;
+            log.info("Journal search index built: {} journals, {} terms in {} ms",
+                    count, postings.size(), System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            log.error("Failed to build journal search index after {} journals", count, e);
+        } finally {
+            synchronized (this) {
+                touchedDuringBuild = null;
+            }
+        }
+    }
+
+    /**
+     * Adds or re-indexes a journal entry after it was saved. Does nothing if a later version is already indexed.
+     *
+     * @param previous The entry as it was before this write (id, title, content, version), or null for a new entry.
+     */
+    public synchronized void index(JournalModel journal, JournalModel previous) {
+        if (!enabled || journal.getId() == null) {
+            return;
+        }
+        markTouched(journal.getId());
+        Long indexed = versions.get(journal.getId());
+        if (indexed != null && indexed != UNVERSIONED && journal.getVersion() != null && indexed >= journal.getVersion()) {
+            return; // A newer write to this entry was indexed first.
+        }
+        unindex(journal.getId(), previous);
+        add(journal);
+    }
+
+    /**
+     * Removes a deleted journal entry from the index.
+     *
+     * @param journal The entry as it was when deleted (id, title, content, version).
+     */
+    public synchronized void remove(JournalModel journal) {
+        if (!enabled) {
+            return;
+        }
+        markTouched(journal.getId());
+        unindex(journal.getId(), journal);
+    }
+
+    /**
+     * Ranks the journals matching any of the query terms.
+     *
+     * @param query Free text; it is tokenized the same way journals are.
+     * @param page Zero-based page number.
+     * @param size Page size.
+     * @return The ids on the requested page, best match first, and the total number of matches.
+     */
+    public SearchHits search(String query, int page, int size) {
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        Map<String, Double> scores = new HashMap<>();
+        double corpusSize = Math.max(1, versions.size());
+
+        for (String term : terms) {
+            Map<String, Integer> posting = postings.get(term);
+            if (posting == null || posting.isEmpty()) {
+                continue;
+            }
+            double idf = Math.log(1 + corpusSize / posting.size());
+            for (Map.Entry<String, Integer> hit : posting.entrySet()) {
+                double score = (1 + Math.log(hit.getValue())) * idf;
+                scores.merge(hit.getKey(), score, Double::sum);
+            }
+        }
+
+        long from = (long) page * size;
+        if (from >= scores.size()) {
+            return new SearchHits(Collections.<String>emptyList(), scores.size()); // Past the last match.
+        }
+        // Keep only the best (page + 1) * size candidates instead of sorting every match; never more than there are.
+        int wanted = (int) Math.min(from + size, scores.size());
+        PriorityQueue<Map.Entry<String, Double>> top = new PriorityQueue<>(Math.max(1, wanted), Map.Entry.comparingByValue());
+        for (Map.Entry<String, Double> candidate : scores.entrySet()) {
+            top.offer(candidate);
+            if (top.size() > wanted) {
+                top.poll();
+            }
+        }
+        List<String> ranked = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            ranked.add(top.poll().getKey());
+        }
+        Collections.reverse(ranked);
+
+        return new SearchHits(ranked.subList((int) from, ranked.size()), scores.size());
+    }
+
+    /**
+     * @return true once the initial build has finished; until then results cover only part of the corpus.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    private void markTouched(String journalId) {
+        if (touchedDuringBuild != null) {
+            touchedDuringBuild.add(journalId);
+        }
+    }
+
+    private void add(JournalModel journal) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : tokenize(journal.getTitle())) {
+            frequencies.merge(term, TITLE_WEIGHT, Integer::sum);
+        }
+        for (String term : tokenize(journal.getContent())) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+        if (frequencies.isEmpty()) {
+            return;
+        }
+        versions.put(journal.getId(), journal.getVersion() != null ? journal.getVersion() : UNVERSIONED);
+        for (Map.Entry<String, Integer> term : frequencies.entrySet()) {
+            postings.computeIfAbsent(term.getKey(), t -> new ConcurrentHashMap<>()).put(journal.getId(), term.getValue());
+        }
+    }
+
+    /**
+     * Drops a journal from the posting lists: those of the terms of `indexedText` if that is the version
+     * that was indexed, all of them otherwise.
+     */
+    private void unindex(String journalId, JournalModel indexedText) {
+        Long indexed = versions.remove(journalId);
+        if (indexed == null) {
+            return;
+        }
+        Iterable<String> terms;
+        if (indexedText != null && indexedText.getVersion() != null && indexed == (long) indexedText.getVersion()) {
+            Set<String> derived = new HashSet<>(tokenize(indexedText.getTitle()));
+            derived.addAll(tokenize(indexedText.getContent()));
+            terms = derived;
+        } else {
+            terms = new ArrayList<>(postings.keySet());
+        }
+        for (String term : terms) {
+            Map<String, Integer> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(journalId);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    /**
+     * Splits text into lower-case alphanumeric terms, dropping very short tokens and stop words.
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                token.append(Character.toLowerCase(c));
+            } else if (token.length() > 0) {
+                String term = token.toString();
+                if (term.length() >= MIN_TOKEN_LENGTH && !STOP_WORDS.contains(term)) {
+                    tokens.add(term);
+                }
+                token.setLength(0);
+            }
+        }
+        return tokens;
+    }
+}
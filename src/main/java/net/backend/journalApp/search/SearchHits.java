@@ -0,0 +1,18 @@
+package net.backend.journalApp.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One page of ranked journal ids returned by {@link JournalSearchIndex}.
+ */
+@Data
+@AllArgsConstructor
+public class SearchHits {
+
+    private List<String> ids; // Journal ids on this page, best match first.
+
+    private int total; // Number of journals matching the query overall.
+}
@@ -0,0 +1,14 @@
+package net.backend.journalApp.security;
+
+/**
+ * Thrown when a password cannot be hashed or checked because the hashing pool is saturated.
+ * Callers answer it with 503 so clients back off instead of piling more work onto the pool.
+ */
+public class HashingCapacityExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public HashingCapacityExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,244 @@
+package net.backend.journalApp.services;
+
+import lombok.extern.slf4j.Slf4j;
+import net.backend.journalApp.model.CategoryCountModel;
+import net.backend.journalApp.model.JournalModel;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Per-category journal counters, overall and per user, for the category facets.
+ *
+ * Every journal write adjusts the affected counters with atomic `$inc` upserts, sent as one bulk
+ * request. A reconciliation job counts the journals with an aggregation pipeline and corrects
+ * the counters that drifted (e.g. from writes made outside this service, or interrupted between
+ * the journal and its counters). It runs on one instance at a time, under a cluster-wide lease.
+ */
+@Slf4j
+@Service
+public class CategoryCounterService {
+
+    public static final String UNCATEGORIZED = "uncategorized";
+
+    private static final int RECONCILE_BATCH_SIZE = 500;
+
+    private static final String RECONCILE_LOCK = "category-counts-reconcile";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ClusterLockService clusterLockService;
+
+    @Value("${journal.category-counts.reconcile-lock.max-hold-ms:3600000}")
+    private long lockMaxHoldMillis; // A run taking longer may overlap with the next one.
+
+    @Value("${journal.category-counts.reconcile-lock.min-hold-ms:60000}")
+    private long lockMinHoldMillis; // Keeps instances firing the same cron a little later from repeating the run.
+
+    /**
+     * Counts a newly created journal entry.
+     */
+    public void onCreated(JournalModel journal) {
+        apply(journal.getOwnerId(), journal.getJournal_category(), 1, null, 0);
+    }
+
+    /**
+     * Moves a journal entry between categories; does nothing if the category did not change.
+     */
+    public void onCategoryChanged(String ownerId, String previousCategory, String newCategory) {
+        if (Objects.equals(normalize(previousCategory), normalize(newCategory))) {
+            return;
+        }
+        apply(ownerId, previousCategory, -1, newCategory, 1);
+    }
+
+    /**
+     * Stops counting a deleted journal entry.
+     */
+    public void onDeleted(JournalModel journal) {
+        apply(journal.getOwnerId(), journal.getJournal_category(), -1, null, 0);
+    }
+
+    /**
+     * @param ownerId The user to count for, or {@link CategoryCountModel#ALL_USERS} for the overall counts.
+     * @return Category -> number of journal entries, sorted by category, without empty categories.
+     */
+    public Map<String, Long> getCounts(String ownerId) {
+        Query query = Query.query(Criteria.where("ownerId").is(ownerId).and("count").gt(0));
+        query.fields().include("category").include("count");
+        Map<String, Long> counts = new TreeMap<>();
+        for (CategoryCountModel counter : mongoTemplate.find(query, CategoryCountModel.class)) {
+            counts.put(counter.getCategory(), counter.getCount());
+        }
+        return counts;
+    }
+
+    /**
+     * Corrects every counter that drifted from the journals collection, then drops counters that reached zero.
+     * Runs only if no other instance is reconciling. Corrections are deltas applied with compare-and-set, so
+     * live `$inc` writes made during a run are never lost; a counter they raced is corrected on the next run.
+     *
+     * @return true if this instance ran the reconciliation, false if another instance holds the lease.
+     */
+    @Scheduled(cron = "${journal.category-counts.reconcile-cron:0 30 3 * * *}")
+    public boolean reconcile() {
+        if (!clusterLockService.tryAcquire(RECONCILE_LOCK, lockMaxHoldMillis)) {
+            log.info("Journal category counters are being reconciled by another instance; skipping.");
+            return false;
+        }
+        try {
+            reconcileCounters();
+            return true;
+        } finally {
+            clusterLockService.release(RECONCILE_LOCK, lockMinHoldMillis);
+        }
+    }
+
+    private void reconcileCounters() {
+        long runStamp = System.currentTimeMillis();
+        log.info("Reconciling journal category counters, run: {}", runStamp);
+
+        // Counters are read before the journals are counted: a live write landing after this read changes
+        // the counter, so the compare-and-set correction below skips it instead of counting it twice.
+        Map<String, Long> current = new HashMap<>(); // Counter id -> count as read.
+        Query all = new Query();
+        all.fields().include("count");
+        try (CloseableIterator<Document> counters = mongoTemplate.stream(all, Document.class,
+                mongoTemplate.getCollectionName(CategoryCountModel.class))) {
+            while (counters.hasNext()) {
+                Document counter = counters.next();
+                current.put(counter.getString("_id"), ((Number) counter.get("count")).longValue());
+            }
+        }
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.group("ownerId", "journal_category").count().as("count"))
+                .withOptions(Aggregation.newAggregationOptions().allowDiskUse(true).build());
+
+        // Raw categories that normalize alike (null and "", "Work" and " Work ") are merged before any counter is written.
+        Map<String, Long> expected = new HashMap<>(); // Counter id -> count, per user.
+        Map<String, Long> overall = new HashMap<>();
+        try (CloseableIterator<Document> groups = mongoTemplate.aggregateStream(aggregation, JournalModel.class, Document.class)) {
+            while (groups.hasNext()) {
+                Document group = groups.next();
+                Document key = group.get("_id", Document.class);
+                String ownerId = key.getString("ownerId");
+                String category = normalize(key.getString("journal_category"));
+                long count = ((Number) group.get("count")).longValue();
+
+                overall.merge(category, count, Long::sum);
+                if (ownerId != null) {
+                    expected.merge(counterId(ownerId, category), count, Long::sum);
+                }
+            }
+        }
+        for (Map.Entry<String, Long> category : overall.entrySet()) {
+            expected.put(counterId(CategoryCountModel.ALL_USERS, category.getKey()), category.getValue());
+        }
+        for (String stale : current.keySet()) {
+            expected.putIfAbsent(stale, 0L); // Category no longer used: corrected down to zero.
+        }
+
+        // Only drifted counters are touched, each by the delta from the value read, and only if it still has that value.
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CategoryCountModel.class);
+        int pending = 0;
+        long corrected = 0;
+        for (Map.Entry<String, Long> counter : expected.entrySet()) {
+            Long read = current.get(counter.getKey());
+            long delta = counter.getValue() - (read != null ? read : 0L);
+            if (delta == 0) {
+                continue;
+            }
+            correct(bulk, counter.getKey(), read, delta, runStamp);
+            corrected++;
+            if (++pending >= RECONCILE_BATCH_SIZE) {
+                execute(bulk);
+                bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CategoryCountModel.class);
+                pending = 0;
+            }
+        }
+        if (pending > 0) {
+            execute(bulk);
+        }
+
+        long removed = mongoTemplate.remove(Query.query(Criteria.where("count").is(0L)), CategoryCountModel.class)
+                .getDeletedCount();
+        log.info("Journal category counters reconciled: {} counters, {} categories, {} corrected, {} empty counters removed",
+                expected.size(), overall.size(), corrected, removed);
+    }
+
+    /**
+     * Applies a batch of corrections. A correction whose counter was just created by a live write fails
+     * on the duplicate `_id`; it is skipped and left to the next run, like one whose count moved.
+     */
+    private static void execute(BulkOperations bulk) {
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            log.info("Skipped {} counter corrections raced by live writes", e.getErrors().size());
+        }
+    }
+
+    private void apply(String ownerId, String category, int delta, String otherCategory, int otherDelta) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CategoryCountModel.class);
+        increment(bulk, CategoryCountModel.ALL_USERS, normalize(category), delta);
+        if (ownerId != null) {
+            increment(bulk, ownerId, normalize(category), delta);
+        }
+        if (otherDelta != 0) {
+            increment(bulk, CategoryCountModel.ALL_USERS, normalize(otherCategory), otherDelta);
+            if (ownerId != null) {
+                increment(bulk, ownerId, normalize(otherCategory), otherDelta);
+            }
+        }
+        bulk.execute();
+    }
+
+    private static void increment(BulkOperations bulk, String ownerId, String category, int delta) {
+        bulk.upsert(Query.query(Criteria.where("_id").is(counterId(ownerId, category))),
+                new Update().inc("count", delta)
+                        .setOnInsert("ownerId", ownerId)
+                        .setOnInsert("category", category));
+    }
+
+    /**
+     * Queues `$inc` by delta on a counter, conditional on it still holding the count read, or on it
+     * still not existing if none was read.
+     */
+    private static void correct(BulkOperations bulk, String counterId, Long read, long delta, long runStamp) {
+        Update update = new Update().inc("count", delta).set("reconciledAt", runStamp);
+        if (read != null) {
+            bulk.updateOne(Query.query(Criteria.where("_id").is(counterId).and("count").is(read)), update);
+            return;
+        }
+        int separator = counterId.indexOf('|'); // Owner ids never contain it; categories may.
+        bulk.upsert(Query.query(Criteria.where("_id").is(counterId).and("count").exists(false)),
+                update.setOnInsert("ownerId", counterId.substring(0, separator))
+                        .setOnInsert("category", counterId.substring(separator + 1)));
+    }
+
+    private static String counterId(String ownerId, String category) {
+        return ownerId + "|" + category;
+    }
+
+    private static String normalize(String category) {
+        return category == null || category.trim().isEmpty() ? UNCATEGORIZED : category.trim();
+    }
+}
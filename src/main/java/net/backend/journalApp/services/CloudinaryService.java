@@ -1,34 +1,61 @@
 package net.backend.journalApp.services;
 
 import com.cloudinary.Cloudinary;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import net.backend.journalApp.repository.JournalRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 
+import javax.annotation.PostConstruct;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
-public class CloudinaryService {
+public class CloudinaryService implements ImageUploadTarget {
 
     @Autowired
     private Cloudinary cloudinary;
 
-    public Map uploadImage(MultipartFile file) {
-        try {
-            log.info("Uploading image: {}", file.getOriginalFilename());
+    @Autowired
+    private MeterRegistry meterRegistry;
 
-            Map fileUploadData = this.cloudinary.uploader().upload(file.getBytes(), Map.of());
+    private Timer uploadTimer; // Duration of each Cloudinary upload call, successful or not.
 
-            log.info("Image uploaded successfully: {}", fileUploadData.get("url"));
-            return fileUploadData;
-        } catch (IOException e) {
-            log.error("Failed to upload image: {}", file.getOriginalFilename(), e);
-            throw new RuntimeException("Failed to upload Image on Cloudinary", e);
+    private DistributionSummary uploadBytes; // Size of each file sent to Cloudinary.
+
+    @PostConstruct
+    public void init() {
+        uploadTimer = Timer.builder("image.upload").tag("target", "cloudinary").register(meterRegistry);
+        uploadBytes = DistributionSummary.builder("image.upload.bytes").baseUnit("bytes").tag("target", "cloudinary").register(meterRegistry);
+    }
+
+    /**
+     * Uploads an image file from disk; Cloudinary streams the file rather than loading it into memory.
+     */
+    @Override
+    public String upload(Path file, String originalFilename) throws IOException {
+        log.info("Uploading image: {}", originalFilename);
+        uploadBytes.record(Files.size(file));
+        Map<?, ?> fileUploadData;
+        long start = System.nanoTime();
+        try {
+            fileUploadData = this.cloudinary.uploader().upload(file.toFile(), Map.of());
+        } finally {
+            uploadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        String url = (String) fileUploadData.get("url");
+        if (url == null) {
+            throw new IOException("Cloudinary returned no URL for " + originalFilename);
         }
+        log.info("Image uploaded successfully: {}", url);
+        return url;
     }
 }
 
@@ -0,0 +1,72 @@
+package net.backend.journalApp.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Cluster-wide leases for scheduled jobs, so a job firing on every instance at once runs on one of them.
+ *
+ * A lease is one document per job in the `job_locks` collection. It is taken with a single conditional
+ * upsert that only matches an expired lease; if another instance holds it, the upsert collides on `_id`
+ * and the caller skips its run. A lease expires on its own after `maxHold`, so a crashed holder cannot
+ * block the job forever, and is kept for at least `minHold` after the run, so instances whose clocks
+ * fire the same cron slightly later do not repeat it.
+ */
+@Slf4j
+@Service
+public class ClusterLockService {
+
+    private static final String COLLECTION = "job_locks";
+
+    // Identifies this instance as the holder of its leases.
+    private final String instanceId = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Takes the named lease if no other instance holds it.
+     *
+     * @param maxHoldMillis How long the lease lasts if it is never released, e.g. because this instance dies.
+     * @return true if this instance now holds the lease.
+     */
+    public boolean tryAcquire(String name, long maxHoldMillis) {
+        Date now = new Date();
+        Query expired = Query.query(Criteria.where("_id").is(name).and("lockedUntil").lte(now));
+        Update update = Update.update("lockedUntil", new Date(now.getTime() + maxHoldMillis))
+                .set("lockedAt", now)
+                .set("lockedBy", instanceId);
+        try {
+            mongoTemplate.findAndModify(expired, update, FindAndModifyOptions.options().upsert(true), Document.class, COLLECTION);
+            return true;
+        } catch (DuplicateKeyException e) {
+            log.debug("Lease {} is held by another instance", name);
+            return false;
+        }
+    }
+
+    /**
+     * Gives the named lease up, keeping it until at least `minHoldMillis` after it was taken.
+     */
+    public void release(String name, long minHoldMillis) {
+        Query held = Query.query(Criteria.where("_id").is(name).and("lockedBy").is(instanceId));
+        Document lease = mongoTemplate.findOne(held, Document.class, COLLECTION);
+        if (lease == null) {
+            return; // Expired and taken over in the meantime.
+        }
+        long until = Math.max(System.currentTimeMillis(), lease.getDate("lockedAt").getTime() + minHoldMillis);
+        mongoTemplate.updateFirst(held, Update.update("lockedUntil", new Date(until)), COLLECTION);
+    }
+}
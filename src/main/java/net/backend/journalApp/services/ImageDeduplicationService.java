@@ -0,0 +1,76 @@
+package net.backend.journalApp.services;
+
+import lombok.extern.slf4j.Slf4j;
+import net.backend.journalApp.cache.BoundedTtlCache;
+import net.backend.journalApp.model.ImageHashModel;
+import net.backend.journalApp.model.UploadedImage;
+import net.backend.journalApp.repository.ImageHashRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Optional;
+
+/**
+ * Content-addressed index of uploaded images: SHA-256 of the upload -> where it is stored.
+ * Lookups go through an in-memory cache in front of the `image_hashes` collection, so repeated
+ * uploads of the same content (re-attached images, client retries) skip the remote upload.
+ */
+@Slf4j
+@Service
+public class ImageDeduplicationService {
+
+    @Autowired
+    private ImageHashRepository imageHashRepository;
+
+    @Value("${image.dedup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${image.dedup.cache.max-size:10000}")
+    private int cacheMaxSize;
+
+    private BoundedTtlCache<String, UploadedImage> cache; // Stored URLs never change, so entries only age out by LRU.
+
+    @PostConstruct
+    public void init() {
+        cache = new BoundedTtlCache<>(cacheMaxSize, 0);
+    }
+
+    /**
+     * @return The stored image with this content hash, or null if the content was never uploaded.
+     */
+    public UploadedImage find(String sha256) {
+        if (!enabled) {
+            return null;
+        }
+        UploadedImage cached = cache.get(sha256);
+        if (cached != null) {
+            return cached;
+        }
+        Optional<ImageHashModel> indexed = imageHashRepository.findById(sha256);
+        if (!indexed.isPresent()) {
+            return null;
+        }
+        ImageHashModel hash = indexed.get();
+        UploadedImage image = new UploadedImage(hash.getUrl(),
+                hash.getVariants() != null ? hash.getVariants() : Collections.emptyMap());
+        cache.put(sha256, image);
+        return image;
+    }
+
+    /**
+     * Records where newly uploaded content is stored. Concurrent uploads of the same content
+     * simply overwrite each other's entry; either URL is valid.
+     */
+    public void record(String sha256, UploadedImage image) {
+        if (!enabled) {
+            return;
+        }
+        imageHashRepository.save(new ImageHashModel(sha256, image.getUrl(), image.getVariants(), LocalDateTime.now()));
+        cache.put(sha256, image);
+        log.info("Indexed image content {} at: {}", sha256, image.getUrl());
+    }
+}
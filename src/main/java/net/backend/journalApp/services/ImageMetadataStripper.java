@@ -0,0 +1,232 @@
+package net.backend.journalApp.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Removes metadata (EXIF with GPS position and camera serials, XMP, IPTC, comments) from an original
+ * image before it is uploaded, so it is not published with the image URL.
+ *
+ * The file is rewritten segment by segment rather than decoded and encoded again: the pixels are
+ * copied byte for byte, nothing is recompressed, and the cost does not depend on the pixel count.
+ * For JPEG only the JFIF header, the ICC colour profile and the Adobe colour transform are kept; an
+ * EXIF orientation other than upright is written back in a minimal EXIF block of its own, so the
+ * image is still shown the right way up. For PNG the text, EXIF and time chunks are dropped. Other
+ * formats are uploaded as received.
+ */
+@Slf4j
+@Service
+public class ImageMetadataStripper {
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    private static final Set<String> PNG_METADATA_CHUNKS = new HashSet<>(Arrays.asList("tEXt", "zTXt", "iTXt", "eXIf", "tIME"));
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private ImageStagingService stagingService;
+
+    @Value("${image.upload.strip-metadata:true}")
+    private boolean enabled;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Writes a copy of a staged JPEG or PNG without its metadata to a new staging file.
+     *
+     * @return The stripped copy, which the caller discards; null if the file is not a JPEG or PNG.
+     * @throws IOException if the file cannot be read or is not a well-formed JPEG or PNG.
+     */
+    public Path strip(Path source) throws IOException {
+        byte[] header = new byte[PNG_SIGNATURE.length];
+        int headerLength;
+        try (InputStream in = Files.newInputStream(source)) {
+            headerLength = in.readNBytes(header, 0, header.length);
+        }
+        boolean jpeg = headerLength >= 2 && (header[0] & 0xFF) == 0xFF && (header[1] & 0xFF) == 0xD8;
+        boolean png = headerLength == PNG_SIGNATURE.length && Arrays.equals(header, PNG_SIGNATURE);
+        if (!jpeg && !png) {
+            return null;
+        }
+
+        Path target = stagingService.newStagingFile();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(source)));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(target)))) {
+            if (jpeg) {
+                stripJpeg(in, out);
+            } else {
+                stripPng(in, out);
+            }
+        } catch (IOException | RuntimeException e) {
+            stagingService.discard(target);
+            throw e;
+        }
+        log.debug("Stripped metadata from {} into: {}", source, target);
+        return target;
+    }
+
+    /**
+     * Copies the segments before the image data that the decoder needs, then the image data itself unchanged.
+     */
+    private static void stripJpeg(DataInputStream in, DataOutputStream out) throws IOException {
+        out.writeShort(in.readUnsignedShort()); // SOI
+        while (true) {
+            int marker = in.readUnsignedShort();
+            while (marker == 0xFFFF) {
+                marker = 0xFF00 | in.readUnsignedByte(); // Fill bytes before a marker.
+            }
+            if ((marker & 0xFF00) != 0xFF00) {
+                throw new IOException("Malformed JPEG: expected a marker, found 0x" + Integer.toHexString(marker));
+            }
+            if (marker == 0xFFD9) { // EOI without image data.
+                out.writeShort(marker);
+                return;
+            }
+            if (marker == 0xFFDA) { // SOS: the image data follows; nothing after it is parsed.
+                out.writeShort(marker);
+                copy(in, out, Long.MAX_VALUE);
+                return;
+            }
+            int length = in.readUnsignedShort() - 2;
+            if (length < 0) {
+                throw new IOException("Malformed JPEG: segment length below 2");
+            }
+            boolean application = marker >= 0xFFE0 && marker <= 0xFFEF;
+            if (!application && marker != 0xFFFE) {
+                out.writeShort(marker); // Tables, frame header, restart interval: needed to decode.
+                out.writeShort(length + 2);
+                copy(in, out, length);
+                continue;
+            }
+            byte[] segment = new byte[length];
+            in.readFully(segment);
+            if (keepsJpegSegment(marker, segment)) {
+                out.writeShort(marker);
+                out.writeShort(length + 2);
+                out.write(segment);
+            } else if (marker == 0xFFE1) {
+                writeOrientation(out, orientationOf(segment));
+            }
+        }
+    }
+
+    private static boolean keepsJpegSegment(int marker, byte[] segment) {
+        switch (marker) {
+            case 0xFFE0: return startsWith(segment, "JFIF\0") || startsWith(segment, "JFXX\0");
+            case 0xFFE2: return startsWith(segment, "ICC_PROFILE\0");
+            case 0xFFEE: return startsWith(segment, "Adobe");
+            default: return false; // EXIF and XMP (APP1), IPTC (APP13), comments and vendor blocks.
+        }
+    }
+
+    private static int orientationOf(byte[] app1) {
+        try {
+            return ImageVariantService.orientationFromExif(app1);
+        } catch (RuntimeException e) {
+            return 0; // Truncated or malformed EXIF: dropped without carrying anything over.
+        }
+    }
+
+    /**
+     * Writes an APP1 segment whose EXIF holds nothing but the orientation, unless the image is already upright.
+     */
+    private static void writeOrientation(DataOutputStream out, int orientation) throws IOException {
+        if (orientation <= 1) {
+            return;
+        }
+        out.writeShort(0xFFE1);
+        out.writeShort(2 + 32);
+        out.write("Exif\0\0".getBytes(StandardCharsets.US_ASCII));
+        out.write(new byte[] {'M', 'M', 0, 42}); // Big-endian TIFF header.
+        out.writeInt(8); // IFD0 follows the header.
+        out.writeShort(1); // One entry:
+        out.writeShort(0x0112); // orientation,
+        out.writeShort(3); // SHORT,
+        out.writeInt(1); // one value,
+        out.writeShort(orientation);
+        out.writeShort(0); // padded to four bytes.
+        out.writeInt(0); // No further IFD.
+    }
+
+    /**
+     * Copies every chunk up to and including IEND except the metadata ones.
+     */
+    private static void stripPng(DataInputStream in, DataOutputStream out) throws IOException {
+        in.readFully(new byte[PNG_SIGNATURE.length]);
+        out.write(PNG_SIGNATURE);
+        while (true) {
+            int length = in.readInt();
+            if (length < 0) {
+                throw new IOException("Malformed PNG: chunk length above 2^31");
+            }
+            byte[] type = new byte[4];
+            in.readFully(type);
+            String name = new String(type, StandardCharsets.US_ASCII);
+            if (PNG_METADATA_CHUNKS.contains(name)) {
+                skip(in, length + 4L); // Data and CRC.
+                continue;
+            }
+            out.writeInt(length);
+            out.write(type);
+            copy(in, out, length + 4L);
+            if (name.equals("IEND")) {
+                return;
+            }
+        }
+    }
+
+    private static boolean startsWith(byte[] segment, String prefix) {
+        byte[] expected = prefix.getBytes(StandardCharsets.US_ASCII);
+        return segment.length >= expected.length && Arrays.equals(Arrays.copyOf(segment, expected.length), expected);
+    }
+
+    /**
+     * Copies `count` bytes, or everything that is left if `count` is Long.MAX_VALUE.
+     */
+    private static void copy(InputStream in, OutputStream out, long count) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long remaining = count;
+        while (remaining > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read == -1) {
+                if (count == Long.MAX_VALUE) {
+                    return;
+                }
+                throw new EOFException("Image ends inside a segment");
+            }
+            out.write(buffer, 0, read);
+            remaining -= read;
+        }
+    }
+
+    private static void skip(InputStream in, long count) throws IOException {
+        long remaining = count;
+        while (remaining > 0) {
+            long skipped = in.skip(remaining);
+            if (skipped <= 0) {
+                throw new EOFException("Image ends inside a segment");
+            }
+            remaining -= skipped;
+        }
+    }
+}
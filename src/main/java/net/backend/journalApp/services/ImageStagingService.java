@@ -0,0 +1,126 @@
+package net.backend.journalApp.services;
+
+import lombok.extern.slf4j.Slf4j;
+import net.backend.journalApp.model.StagedImage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.UUID;
+
+/**
+ * Stages uploaded images in a local directory, from where they are uploaded to the backend.
+ * Files are copied through a fixed-size buffer, so the heap cost of an upload does not depend on its size.
+ */
+@Slf4j
+@Service
+public class ImageStagingService {
+
+    @Value("${image.upload.staging-dir:${java.io.tmpdir}/journal-image-staging}")
+    private String stagingDir;
+
+    @Value("${image.upload.max-size:20MB}")
+    private DataSize maxSize; // Largest image accepted; bigger uploads are rejected with 413.
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private Path stagingPath;
+
+    @PostConstruct
+    public void init() throws IOException {
+        stagingPath = Files.createDirectories(Paths.get(stagingDir));
+    }
+
+    /**
+     * Copies the uploaded file into the staging directory through a fixed-size buffer.
+     * Uploads larger than `image.upload.max-size` are rejected before any byte is copied, and the
+     * limit is enforced again while copying in case the declared size was wrong.
+     *
+     * The SHA-256 of the content is computed on the same pass.
+     *
+     * @return The staged image; the caller must discard it once it is no longer needed.
+     * @throws ResponseStatusException with 413 (PAYLOAD_TOO_LARGE) if the upload exceeds the limit.
+     */
+    public StagedImage stage(MultipartFile file) throws IOException {
+        long limit = maxSize.toBytes();
+        if (file.getSize() > limit) {
+            log.warn("Rejected image {} of {} bytes; limit is {} bytes", file.getOriginalFilename(), file.getSize(), limit);
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "Image exceeds the maximum size of " + maxSize);
+        }
+
+        Path staged = newStagingFile();
+        MessageDigest digest = sha256();
+        long copied = 0;
+        try (InputStream in = file.getInputStream();
+             OutputStream out = Files.newOutputStream(staged)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                copied += read;
+                if (copied > limit) {
+                    throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "Image exceeds the maximum size of " + maxSize);
+                }
+                digest.update(buffer, 0, read);
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException | RuntimeException e) {
+            discard(staged);
+            throw e;
+        }
+        log.info("Staged image {} ({} bytes) at: {}", file.getOriginalFilename(), copied, staged);
+        return new StagedImage(staged, toHex(digest.digest()), copied);
+    }
+
+    /**
+     * @return A fresh, not yet existing path in the staging directory, e.g. for derived images.
+     */
+    public Path newStagingFile() {
+        return stagingPath.resolve(UUID.randomUUID().toString());
+    }
+
+    /**
+     * Deletes a staged image, logging rather than failing if it cannot be removed.
+     */
+    public void discard(StagedImage staged) {
+        discard(staged.getPath());
+    }
+
+    /**
+     * Deletes a staged file, logging rather than failing if it cannot be removed.
+     */
+    public void discard(Path staged) {
+        try {
+            Files.deleteIfExists(staged);
+        } catch (IOException e) {
+            log.warn("Failed to delete staged image: {}", staged, e);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,285 @@
+package net.backend.journalApp.services;
+
+import lombok.extern.slf4j.Slf4j;
+import net.backend.journalApp.model.ImageStatus;
+import net.backend.journalApp.model.StagedImage;
+import net.backend.journalApp.model.UploadedImage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Uploads journal images in the background so request threads never wait on the upload backend.
+ *
+ * The controller stages the image locally and saves the journal with `imageStatus=PENDING`;
+ * a bounded worker pool then processes and uploads the staged file with retries and patches
+ * `image_url` and `image_variants` (or marks the entry FAILED). A request reserves its place in the
+ * pool before the journal is saved; when every worker and queue slot is taken it is answered with 503
+ * instead of running the upload on the request thread. Entries left PENDING by a crash or restart are
+ * marked FAILED by a periodic sweep once they are older than any upload could take.
+ */
+@Slf4j
+@Service
+public class ImageUploadPipeline {
+
+    @Autowired
+    private ImageUploadTarget uploadTarget;
+
+    @Autowired
+    private ImageStagingService stagingService;
+
+    @Autowired
+    private ImageVariantService variantService;
+
+    @Autowired
+    private ImageMetadataStripper metadataStripper;
+
+    @Autowired
+    private ImageDeduplicationService imageDeduplicationService;
+
+    @Autowired
+    private JournalServices journalServices;
+
+    @Value("${image.upload.async.enabled:false}")
+    private boolean asyncEnabled;
+
+    @Value("${image.upload.async.workers:4}")
+    private int workers;
+
+    @Value("${image.upload.async.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${image.upload.async.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${image.upload.async.retry-backoff-ms:1000}")
+    private long retryBackoffMillis; // Delay before the second attempt; grows linearly with each retry.
+
+    @Value("${image.upload.async.stale-after-ms:1800000}")
+    private long staleAfterMillis; // A PENDING entry older than this is no longer being uploaded by anyone.
+
+    private ThreadPoolExecutor executor;
+
+    private Semaphore slots; // One permit per worker and queue slot; taken before the journal is saved.
+
+    @PostConstruct
+    public void init() {
+        // The queue itself is unbounded: the permits bound it, so a reserved upload can always be queued.
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                new CustomizableThreadFactory("image-upload-"));
+        slots = new Semaphore(workers + queueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Image upload workers did not finish in time; pending images stay PENDING.");
+        }
+    }
+
+    /**
+     * @return true if journal images should be staged and uploaded in the background.
+     */
+    public boolean isAsyncEnabled() {
+        return asyncEnabled;
+    }
+
+    /**
+     * Reserves a place in the pool and stages an uploaded image locally, so the request can complete
+     * before it is uploaded. The reservation is handed on by {@link #submit} or given back by {@link #discard}.
+     *
+     * @throws ResponseStatusException with 503 (SERVICE_UNAVAILABLE) if every worker and queue slot is taken.
+     */
+    public StagedImage stage(MultipartFile file) throws IOException {
+        if (!slots.tryAcquire()) {
+            log.warn("Image upload queue is full; rejecting {}", file.getOriginalFilename());
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many image uploads in progress, please retry shortly");
+        }
+        try {
+            return stagingService.stage(file);
+        } catch (IOException | RuntimeException e) {
+            slots.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Stages and uploads an image on the calling thread, for when background uploads are disabled.
+     * No variants are generated here: decoding and uploading them would hold the request thread. A later
+     * background upload of the same content adds them to the stored entry.
+     */
+    public UploadedImage uploadNow(MultipartFile file) throws IOException {
+        StagedImage staged = stagingService.stage(file);
+        try {
+            return process(staged, file.getOriginalFilename(), false);
+        } finally {
+            stagingService.discard(staged);
+        }
+    }
+
+    /**
+     * Uploads a staged image without its metadata (see {@link ImageMetadataStripper}), together with its resized variants when requested and
+     * variant generation is enabled. Content that was uploaded before (same SHA-256) is not uploaded
+     * again; the stored URLs are reused. If the stored entry has no variants but variants are requested,
+     * e.g. because it was first uploaded synchronously, only the variants are made and added to it.
+     * If the image cannot be processed it is uploaded without variants.
+     */
+    public UploadedImage process(StagedImage staged, String originalFilename, boolean withVariants) throws IOException {
+        boolean variantsWanted = withVariants && variantService.isEnabled();
+        UploadedImage known = imageDeduplicationService.find(staged.getSha256());
+        if (known != null && (!variantsWanted || hasVariants(known))) {
+            log.info("Image {} already stored, reusing: {}", originalFilename, known.getUrl());
+            return known;
+        }
+
+        UploadedImage uploaded;
+        if (known != null) {
+            log.info("Image {} already stored without variants, adding them: {}", originalFilename, known.getUrl());
+            Map<String, String> variants = uploadVariants(staged.getPath(), originalFilename);
+            if (variants.isEmpty()) {
+                return known; // Could not be processed; nothing to add.
+            }
+            uploaded = new UploadedImage(known.getUrl(), variants);
+        } else {
+            String url = uploadOriginal(staged.getPath(), originalFilename);
+            Map<String, String> variants = variantsWanted
+                    ? uploadVariants(staged.getPath(), originalFilename)
+                    : Collections.<String, String>emptyMap();
+            uploaded = new UploadedImage(url, variants);
+        }
+        imageDeduplicationService.record(staged.getSha256(), uploaded);
+        return uploaded;
+    }
+
+    /**
+     * Uploads the staged image itself, stripped of its metadata unless `image.upload.strip-metadata` is false.
+     *
+     * @throws IOException if metadata is to be stripped but the image is malformed; it is then not uploaded.
+     */
+    private String uploadOriginal(Path staged, String originalFilename) throws IOException {
+        Path stripped = metadataStripper.isEnabled() ? metadataStripper.strip(staged) : null;
+        if (stripped == null) {
+            return uploadTarget.upload(staged, originalFilename);
+        }
+        try {
+            return uploadTarget.upload(stripped, originalFilename);
+        } finally {
+            stagingService.discard(stripped);
+        }
+    }
+
+    /**
+     * Generates and uploads the variants of a staged image.
+     *
+     * @return Variant name -> URL; empty if the image cannot be processed.
+     */
+    private Map<String, String> uploadVariants(Path staged, String originalFilename) throws IOException {
+        Map<String, Path> variantFiles;
+        try {
+            variantFiles = variantService.generate(staged);
+        } catch (IOException e) {
+            log.warn("Could not process image {}, storing it without variants: {}", originalFilename, e.getMessage());
+            return Collections.emptyMap();
+        }
+
+        try {
+            Map<String, String> variantUrls = new LinkedHashMap<>();
+            for (Map.Entry<String, Path> variant : variantFiles.entrySet()) {
+                variantUrls.put(variant.getKey(), uploadTarget.upload(variant.getValue(), originalFilename + "#" + variant.getKey()));
+            }
+            return variantUrls;
+        } finally {
+            variantFiles.values().forEach(stagingService::discard);
+        }
+    }
+
+    private static boolean hasVariants(UploadedImage image) {
+        return image.getVariants() != null && !image.getVariants().isEmpty();
+    }
+
+    /**
+     * Drops a staged image that will not be submitted, e.g. because saving the journal failed, and frees its place.
+     */
+    public void discard(StagedImage staged) {
+        stagingService.discard(staged);
+        slots.release();
+    }
+
+    /**
+     * Queues the upload of a staged image for a journal entry that is already saved as PENDING, using the
+     * place reserved by {@link #stage}. The staged file is deleted once the upload succeeds or gives up.
+     * If this throws, e.g. while shutting down, the image was not taken over and the caller still discards it.
+     */
+    public void submit(String journalId, StagedImage staged, String originalFilename) {
+        log.info("Queueing image upload for journal entry: {}", journalId);
+        executor.execute(() -> {
+            try {
+                uploadWithRetry(journalId, staged, originalFilename);
+            } finally {
+                slots.release();
+            }
+        });
+    }
+
+    /**
+     * Marks entries FAILED whose image has been PENDING for longer than `image.upload.async.stale-after-ms`,
+     * e.g. because the instance that staged it crashed or was restarted before the upload finished.
+     */
+    @Scheduled(fixedDelayString = "${image.upload.async.stale-sweep-interval-ms:300000}", initialDelay = 60000)
+    public void failStalePending() {
+        try {
+            int failed = journalServices.failStalePendingImages(LocalDateTime.now().minusNanos(staleAfterMillis * 1_000_000L));
+            if (failed > 0) {
+                log.warn("Marked {} journal images FAILED after being PENDING for over {} ms", failed, staleAfterMillis);
+            }
+        } catch (Exception e) {
+            log.error("Stale image sweep failed; retrying on the next run", e);
+        }
+    }
+
+    private void uploadWithRetry(String journalId, StagedImage staged, String originalFilename) {
+        try {
+            for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+                try {
+                    UploadedImage image = process(staged, originalFilename, true);
+                    journalServices.updateImage(journalId, image, ImageStatus.READY);
+                    log.info("Image for journal entry {} uploaded on attempt {}", journalId, attempt);
+                    return;
+                } catch (Exception e) {
+                    log.warn("Image upload attempt {}/{} failed for journal entry {}: {}",
+                            attempt, maxAttempts, journalId, e.getMessage());
+                    if (attempt < maxAttempts) {
+                        Thread.sleep(retryBackoffMillis * attempt);
+                    }
+                }
+            }
+            log.error("Giving up on image upload for journal entry: {}", journalId);
+            journalServices.updateImage(journalId, null, ImageStatus.FAILED);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Image upload interrupted for journal entry: {}", journalId);
+        } finally {
+            stagingService.discard(staged);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package net.backend.journalApp.services;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Destination that journal images are uploaded to.
+ * Cloudinary is the default; a local filesystem stand-in can be selected with `image.upload.target=local`.
+ */
+public interface ImageUploadTarget {
+
+    /**
+     * Uploads an image file and returns the URL it can be served from.
+     *
+     * @param file The local file holding the image.
+     * @param originalFilename The name the client uploaded the image under, for logging.
+     * @return The public URL of the uploaded image.
+     * @throws IOException if the upload fails.
+     */
+    String upload(Path file, String originalFilename) throws IOException;
+}
@@ -0,0 +1,287 @@
+package net.backend.journalApp.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Produces downscaled variants of journal images for list views.
+ *
+ * The pixel dimensions are read from the header first, and images above `image.variants.max-pixels`
+ * are not decoded at all, so a small but highly compressed file cannot exhaust the heap. Others are
+ * decoded once, subsampled while decoding to about the largest variant width, and every variant is
+ * then scaled, turned upright according to the EXIF orientation and encoded in parallel on a
+ * dedicated fork-join pool. Variants carry no source metadata (EXIF, GPS, comments); for the original
+ * see {@link ImageMetadataStripper}. Only JPEG and PNG are processed; other formats (e.g. animated GIF)
+ * get no variants.
+ */
+@Slf4j
+@Service
+public class ImageVariantService {
+
+    private static final int EXIF_ORIENTATION_TAG = 0x0112;
+
+    @Autowired
+    private ImageStagingService stagingService;
+
+    @Value("${image.variants.enabled:true}")
+    private boolean enabled;
+
+    @Value("#{${image.variants.widths}}")
+    private Map<String, Integer> widths; // Variant name -> maximum width in pixels.
+
+    @Value("${image.variants.parallelism:2}")
+    private int parallelism;
+
+    @Value("${image.variants.max-pixels:40000000}")
+    private long maxPixels; // Images with more pixels than this are not decoded; they get no variants.
+
+    private int maxWidth; // Widest configured variant; images are decoded at no less than this.
+
+    private ForkJoinPool pool;
+
+    @PostConstruct
+    public void init() {
+        pool = new ForkJoinPool(parallelism);
+        maxWidth = widths.values().stream().mapToInt(Integer::intValue).max().orElse(1);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Decodes the staged image once, at reduced resolution, and writes every variant to its own staging file.
+     *
+     * @return Variant name -> staged file; empty if the file is not a JPEG or PNG. The caller discards the files.
+     * @throws IOException if the image cannot be decoded or has more than `image.variants.max-pixels` pixels.
+     */
+    public Map<String, Path> generate(Path source) throws IOException {
+        String format;
+        BufferedImage image;
+        int orientation = 1;
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = input == null ? Collections.<ImageReader>emptyIterator() : ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return Collections.emptyMap();
+            }
+            ImageReader reader = readers.next();
+            try {
+                format = reader.getFormatName().toLowerCase();
+                if (!format.equals("jpeg") && !format.equals("png")) {
+                    return Collections.emptyMap();
+                }
+                if (format.equals("jpeg")) {
+                    orientation = exifOrientation(source);
+                }
+                reader.setInput(input, true, true); // Metadata is ignored, so it is not carried into any variant.
+                int width = reader.getWidth(0); // Read from the header; no pixel is decoded yet.
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    throw new IOException("Image of " + width + "x" + height + " pixels exceeds the limit of " + maxPixels);
+                }
+                // Decode only every n-th pixel, keeping the upright width at or above the widest variant.
+                int uprightWidth = swapsAxes(orientation) ? height : width;
+                int subsampling = Math.max(1, uprightWidth / maxWidth);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                image = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+
+        int uprightWidth = swapsAxes(orientation) ? image.getHeight() : image.getWidth();
+        int imageOrientation = orientation;
+        List<String> names = new ArrayList<>();
+        List<Callable<Path>> tasks = new ArrayList<>();
+        for (Map.Entry<String, Integer> variant : widths.entrySet()) {
+            int width = Math.min(variant.getValue(), uprightWidth);
+            names.add(variant.getKey());
+            tasks.add(() -> write(image, imageOrientation, width, format));
+        }
+
+        List<Future<Path>> results = pool.invokeAll(tasks); // Returns once every variant is written or has failed.
+
+        Map<String, Path> variants = new LinkedHashMap<>();
+        IOException failure = null;
+        for (int i = 0; i < results.size(); i++) {
+            try {
+                variants.put(names.get(i), results.get(i).get());
+            } catch (InterruptedException | ExecutionException e) {
+                failure = new IOException("Failed to generate image variant: " + names.get(i), e);
+            }
+        }
+        if (failure != null) {
+            variants.values().forEach(stagingService::discard);
+            throw failure;
+        }
+        log.info("Generated {} image variants from: {}", variants.size(), source);
+        return variants;
+    }
+
+    /**
+     * Turns the image upright and scales it to the given width, keeping its aspect ratio, then encodes it to a staging file.
+     */
+    private Path write(BufferedImage source, int orientation, int width, String format) throws IOException {
+        int sourceWidth = source.getWidth();
+        int sourceHeight = source.getHeight();
+        int uprightWidth = swapsAxes(orientation) ? sourceHeight : sourceWidth;
+        int uprightHeight = swapsAxes(orientation) ? sourceWidth : sourceHeight;
+        int height = Math.max(1, (int) Math.round((double) uprightHeight * width / uprightWidth));
+
+        AffineTransform transform = AffineTransform.getScaleInstance((double) width / uprightWidth, (double) height / uprightHeight);
+        transform.concatenate(orientationTransform(orientation, sourceWidth, sourceHeight));
+
+        int type = format.equals("png") ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage scaled = new BufferedImage(width, height, type);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, transform, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        Path target = stagingService.newStagingFile();
+        if (!ImageIO.write(scaled, format, target.toFile())) {
+            throw new IOException("No writer available for image format: " + format);
+        }
+        return target;
+    }
+
+    /**
+     * @return true if the EXIF orientation turns the image by 90 degrees, so width and height trade places.
+     */
+    private static boolean swapsAxes(int orientation) {
+        return orientation >= 5 && orientation <= 8;
+    }
+
+    /**
+     * Maps stored pixel coordinates to upright ones for an EXIF orientation (1-8) of a w x h image.
+     */
+    private static AffineTransform orientationTransform(int orientation, int w, int h) {
+        // AffineTransform(m00, m10, m01, m11, m02, m12): x' = m00 x + m01 y + m02, y' = m10 x + m11 y + m12
+        switch (orientation) {
+            case 2: return new AffineTransform(-1, 0, 0, 1, w, 0); // Mirrored horizontally.
+            case 3: return new AffineTransform(-1, 0, 0, -1, w, h); // Rotated 180 degrees.
+            case 4: return new AffineTransform(1, 0, 0, -1, 0, h); // Mirrored vertically.
+            case 5: return new AffineTransform(0, 1, 1, 0, 0, 0); // Transposed.
+            case 6: return new AffineTransform(0, 1, -1, 0, h, 0); // Rotated 90 degrees clockwise.
+            case 7: return new AffineTransform(0, -1, -1, 0, h, w); // Transversed.
+            case 8: return new AffineTransform(0, -1, 1, 0, 0, w); // Rotated 90 degrees counter-clockwise.
+            default: return new AffineTransform();
+        }
+    }
+
+    /**
+     * Reads the EXIF orientation from the APP1 segment of a JPEG, scanning only the segment headers.
+     *
+     * @return The orientation (1-8), or 1 if the file carries none or it cannot be read.
+     */
+    private static int exifOrientation(Path jpeg) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(jpeg)))) {
+            if (in.readUnsignedShort() != 0xFFD8) {
+                return 1;
+            }
+            while (true) {
+                int marker = in.readUnsignedShort();
+                if ((marker & 0xFF00) != 0xFF00 || marker == 0xFFDA || marker == 0xFFD9) {
+                    return 1; // Image data starts; metadata segments all come before it.
+                }
+                int length = in.readUnsignedShort() - 2;
+                if (marker != 0xFFE1) {
+                    skipFully(in, length);
+                    continue;
+                }
+                byte[] segment = new byte[length];
+                in.readFully(segment);
+                int orientation = orientationFromExif(segment);
+                if (orientation > 0) {
+                    return orientation;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("Could not read EXIF orientation of {}: {}", jpeg, e.getMessage());
+            return 1;
+        }
+    }
+
+    /**
+     * @return The orientation tag of IFD0 in an APP1 payload, or 0 if it is not EXIF or has no such tag.
+     */
+    static int orientationFromExif(byte[] segment) {
+        if (segment.length < 14 || segment[0] != 'E' || segment[1] != 'x' || segment[2] != 'i' || segment[3] != 'f') {
+            return 0;
+        }
+        int tiff = 6; // After "Exif\0\0".
+        boolean littleEndian = segment[tiff] == 'I';
+        int ifd = tiff + readInt(segment, tiff + 4, littleEndian);
+        int entries = readShort(segment, ifd, littleEndian);
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (readShort(segment, entry, littleEndian) == EXIF_ORIENTATION_TAG) {
+                int orientation = readShort(segment, entry + 8, littleEndian);
+                return orientation >= 1 && orientation <= 8 ? orientation : 0;
+            }
+        }
+        return 0;
+    }
+
+    private static int readShort(byte[] bytes, int offset, boolean littleEndian) {
+        int b0 = bytes[offset] & 0xFF;
+        int b1 = bytes[offset + 1] & 0xFF;
+        return littleEndian ? (b1 << 8) | b0 : (b0 << 8) | b1;
+    }
+
+    private static int readInt(byte[] bytes, int offset, boolean littleEndian) {
+        int high = readShort(bytes, offset + (littleEndian ? 2 : 0), littleEndian);
+        int low = readShort(bytes, offset + (littleEndian ? 0 : 2), littleEndian);
+        return (high << 16) | low;
+    }
+
+    private static void skipFully(InputStream in, int count) throws IOException {
+        long remaining = count;
+        while (remaining > 0) {
+            long skipped = in.skip(remaining);
+            if (skipped <= 0) {
+                throw new IOException("Unexpected end of JPEG");
+            }
+            remaining -= skipped;
+        }
+    }
+}
@@ -1,21 +1,69 @@
 package net.backend.journalApp.services;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
 import lombok.extern.slf4j.Slf4j;
+import net.backend.journalApp.cache.JournalChangeTracker;
+import net.backend.journalApp.cache.JournalJsonCache;
+import net.backend.journalApp.model.CategoryCountModel;
+import net.backend.journalApp.model.CursorPage;
+import net.backend.journalApp.model.ImageStatus;
+import net.backend.journalApp.model.JournalBatchOperation;
+import net.backend.journalApp.model.JournalBatchResult;
 import net.backend.journalApp.model.JournalModel;
+import net.backend.journalApp.model.JournalPatch;
+import net.backend.journalApp.model.SearchResultPage;
+import net.backend.journalApp.model.UploadedImage;
 import net.backend.journalApp.model.UserModel;
 import net.backend.journalApp.repository.JournalRepository;
+import net.backend.journalApp.search.JournalSearchIndex;
+import net.backend.journalApp.search.SearchHits;
+import net.backend.journalApp.utils.CursorUtil;
+import org.bson.Document;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
+import javax.annotation.PostConstruct;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
 
 @Slf4j
 @Service
@@ -27,16 +75,75 @@ public class JournalServices {
     @Autowired
     private UserServices userServices;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private JournalSearchIndex journalSearchIndex;
+
+    @Autowired
+    private CategoryCounterService categoryCounterService;
+
+    @Autowired
+    private JournalChangeTracker journalChangeTracker;
+
+    @Autowired
+    private JournalJsonCache journalJsonCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${journal.export.batch-size:500}")
+    private int exportBatchSize; // Number of documents fetched per cursor round trip when streaming.
+
+    @Value("${journal.page.max-size:100}")
+    private int maxPageSize; // Upper bound on the page size clients may request.
+
+    @Value("${journal.search.max-page:1000}")
+    private int maxSearchPage; // Deepest search page served; ranking cost grows with the page number.
+
+    @Value("${journal.batch.max-size:100}")
+    private int maxBatchSize; // Upper bound on the operations accepted in one batch request.
+
+    @Autowired(required = false)
+    private PlatformTransactionManager transactionManager; // Only declared in the transactional write mode.
+
+    @Value("${journal.write-mode:transactional}")
+    private String writeMode; // "transactional": writes run in a Mongo transaction; "atomic": single-document writes only.
+
+    private TransactionTemplate transactionTemplate; // Null in the atomic write mode.
+
+    /**
+     * Picks the write mode. In the atomic mode each journal write is one single-document operation guarded
+     * by the `version` field; the journal is always written before the state derived from it (counters,
+     * index, caches), and whatever a failure leaves behind is repaired by {@link net.backend.journalApp.migration.JournalRepairJob}.
+     */
+    @PostConstruct
+    public void init() {
+        if ("transactional".equals(writeMode)) {
+            if (transactionManager == null) {
+                throw new IllegalStateException("journal.write-mode=transactional requires a transaction manager");
+            }
+            transactionTemplate = new TransactionTemplate(transactionManager);
+        } else if (!"atomic".equals(writeMode)) {
+            throw new IllegalStateException("Unknown journal.write-mode: " + writeMode);
+        }
+        log.info("Journal write mode: {}", writeMode);
+    }
+
     public JournalModel saveJournals(JournalModel journalEntity){
-        log.info("Saving journal entry: {}", journalEntity);
+        log.debug("Saving journal entry: {}", journalEntity);
         return journalRepository.save(journalEntity);
     }
     /**
      * Save a journal entry and associate it with a user
      */
-    @Transactional
     public ResponseEntity<?> saveJournalEntries(JournalModel journalEntry, String userName, String imageUrl) {
-        log.info("Saving journal entry for user: {}", userName);
+        return inWriteScope(() -> doSaveJournalEntries(journalEntry, userName, imageUrl));
+    }
+
+    private ResponseEntity<?> doSaveJournalEntries(JournalModel journalEntry, String userName, String imageUrl) {
+        log.debug("Saving journal entry for user: {}", userName);
 
         try {
             if (journalEntry.getTitle().trim().isEmpty()) {
@@ -49,25 +156,19 @@ public class JournalServices {
                 log.warn("User not found: {}", userName);
                 return new ResponseEntity<>("User not found", HttpStatus.NOT_FOUND);
             }
-            // Ensure the journal list is initialized
-            if (user.getJournalEntries() == null) {
-                user.setJournalEntries(new ArrayList<>());
-            }
-
-            // Set image URL before saving
+            // Set owner and image URL before saving
+            journalEntry.setOwnerId(user.getId());
             journalEntry.setImage_url(imageUrl);
             journalEntry.setJournal_category(journalEntry.getJournal_category());
 //            journalEntry.setLikes(0);
             journalEntry.setCreatedAt(LocalDateTime.now());
             journalEntry.setUpdatedAt(LocalDateTime.now());
+            journalEntry.setVersion(null); // A new entry; a client-sent version would turn the insert into an update.
 
             // Save the journal entry
             JournalModel savedJournal = journalRepository.save(journalEntry);
             log.info("Journal entry saved successfully: {}", savedJournal.getId());
-
-            // Add the journal entry to the user's list
-            user.getJournalEntries().add(savedJournal);
-            userServices.saveUser(user);
+            onJournalCreated(savedJournal, userName);
 
             return ResponseEntity.ok(savedJournal);
         } catch (Exception e) {
@@ -92,9 +193,12 @@ public class JournalServices {
     /**
      * Update a journal entry by ID
      */
-    @Transactional
     public ResponseEntity<?> updateJournalEntry(ObjectId journalId, JournalModel updatedJournal, String userName, String imageUrl) {
-        log.info("Updating journal entry: {} for user: {}", journalId, userName);
+        return inWriteScope(() -> doUpdateJournalEntry(journalId, updatedJournal, userName, imageUrl));
+    }
+
+    private ResponseEntity<?> doUpdateJournalEntry(ObjectId journalId, JournalModel updatedJournal, String userName, String imageUrl) {
+        log.debug("Updating journal entry: {} for user: {}", journalId, userName);
 
         try {
 
@@ -108,11 +212,17 @@ public class JournalServices {
             //validate if the user ouns the journal entry
             UserModel user = userServices.findByUserName(userName);
 
-            if (user == null || !user.getJournalEntries().contains(existingJournal)) {
+            if (!isOwner(user, existingJournal)) {
                 log.warn("Unauthorized update attempt by user: {}", userName);
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Your are not authorized to update this journal");
             }
 
+            ensureVersioned(existingJournal);
+            JournalModel previous = snapshot(existingJournal); // The entry is changed in place below.
+            if (updatedJournal.getVersion() != null) {
+                existingJournal.setVersion(updatedJournal.getVersion()); // The client's version, so its stale edits are refused.
+            }
+
             //update field only if new values are provided
             if (updatedJournal.getContent() != null) {
                 existingJournal.setTitle(updatedJournal.getTitle());
@@ -122,6 +232,8 @@ public class JournalServices {
             }
             if (imageUrl != null && !imageUrl.isEmpty()) {
                 existingJournal.setImage_url(imageUrl);
+                existingJournal.setImage_variants(updatedJournal.getImage_variants());
+                existingJournal.setImageStatus(ImageStatus.READY);
             }
             if (updatedJournal.getJournal_category() != null) {
                 existingJournal.setJournal_category((updatedJournal.getJournal_category()));
@@ -130,11 +242,15 @@ public class JournalServices {
             //set the last updated timestamp
             existingJournal.setUpdatedAt(LocalDateTime.now());
 
-            //save the updated journal entry
+            //save the updated journal entry; fails if the version moved since it was read
             journalRepository.save(existingJournal);
+            onJournalUpdated(existingJournal, previous, userName);
 
             log.info("Journal entry updated successfully: {}", existingJournal.getId());
             return ResponseEntity.ok(existingJournal);
+        }catch (OptimisticLockingFailureException e) {
+            log.info("Journal entry {} was changed concurrently; update by {} refused.", journalId, userName);
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Journal entry was modified since it was read");
         }catch (ResponseStatusException e) {
             log.error("Error updating journal entry: {}", e.getMessage(), e);
             return ResponseEntity.status(e.getStatus()).body(e.getReason());
@@ -144,6 +260,338 @@ public class JournalServices {
         }
     }
 
+    /**
+     * Change only the given fields of a journal entry in one conditional `findAndModify`.
+     * The filter carries the owner and, if given, the expected `updatedAt`, so the ownership check,
+     * the optimistic concurrency check and the write are a single indexed round trip, and edits to
+     * different fields made at the same time do not overwrite each other.
+     *
+     * @return The patched journal entry with 200, or 400, 404, 401 or 409 (`updatedAt` or `version` moved) with a message.
+     */
+    public ResponseEntity<?> patchJournalEntry(ObjectId journalId, JournalPatch patch, String userName) {
+        log.debug("Patching journal entry: {} for user: {}", journalId, userName);
+        if (patch.isEmpty()) {
+            return ResponseEntity.badRequest().body("No fields to update");
+        }
+        if (patch.getTitle() != null && patch.getTitle().trim().isEmpty()) {
+            return ResponseEntity.badRequest().body("Title field can't be empty");
+        }
+        String ownerId = userServices.findUserIdByUserName(userName);
+        if (ownerId == null) {
+            return new ResponseEntity<>("User not found", HttpStatus.NOT_FOUND);
+        }
+
+        Criteria filter = Criteria.where("_id").is(journalId).and("ownerId").is(ownerId);
+        if (patch.getExpectedUpdatedAt() != null) {
+            filter.and("updatedAt").is(patch.getExpectedUpdatedAt());
+        }
+        if (patch.getExpectedVersion() != null) {
+            filter.and("version").is(patch.getExpectedVersion());
+        }
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS); // As stored, so clients can echo it back.
+        Update update = Update.update("updatedAt", now).inc("version", 1);
+        if (patch.getTitle() != null) {
+            update.set("title", patch.getTitle());
+        }
+        if (patch.getContent() != null) {
+            update.set("content", patch.getContent());
+        }
+        if (patch.getJournal_category() != null) {
+            update.set("journal_category", patch.getJournal_category());
+        }
+
+        // The previous version is returned so the category change can be counted; the new one is derived from it.
+        JournalModel journal = mongoTemplate.findAndModify(Query.query(filter), update,
+                FindAndModifyOptions.options().returnNew(false), JournalModel.class);
+        if (journal == null) {
+            return patchRejection(journalId, ownerId, userName);
+        }
+        JournalModel previous = snapshot(journal);
+        if (patch.getTitle() != null) {
+            journal.setTitle(patch.getTitle());
+        }
+        if (patch.getContent() != null) {
+            journal.setContent(patch.getContent());
+        }
+        if (patch.getJournal_category() != null) {
+            journal.setJournal_category(patch.getJournal_category());
+        }
+        journal.setUpdatedAt(now);
+        journal.setVersion(journal.getVersion() != null ? journal.getVersion() + 1 : 1L);
+        onJournalUpdated(journal, previous, userName);
+
+        log.info("Journal entry patched successfully: {}", journalId);
+        return ResponseEntity.ok(journal);
+    }
+
+    /**
+     * Explains why a conditional patch matched nothing; only runs on that failure path.
+     */
+    private ResponseEntity<?> patchRejection(ObjectId journalId, String ownerId, String userName) {
+        Query query = Query.query(Criteria.where("_id").is(journalId));
+        query.fields().include("ownerId");
+        Document journal = mongoTemplate.findOne(query, Document.class, mongoTemplate.getCollectionName(JournalModel.class));
+        if (journal == null) {
+            log.warn("Journal entry not found: {}", journalId);
+            return new ResponseEntity<>("Journal entry not found", HttpStatus.NOT_FOUND);
+        }
+        if (!ownerId.equals(journal.getString("ownerId"))) {
+            log.warn("Unauthorized patch attempt by user: {}", userName);
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Your are not authorized to update this journal");
+        }
+        log.info("Journal entry {} was changed since the expected version.", journalId);
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("Journal entry was modified since it was read");
+    }
+
+    /**
+     * Apply a batch of creates, updates and deletes for one user, with one user lookup, one
+     * ownership query and one unordered bulk write for the creates and updates; deletes are sent one
+     * by one, so each knows whether it removed the entry. Items are independent: an invalid, foreign or
+     * failing item does not stop the others, and every item gets its own result.
+     * A journal may be targeted only once per batch, since an unordered bulk may apply writes in any order.
+     *
+     * @return One result per operation, in request order, or null if the user does not exist.
+     * @throws ResponseStatusException with 413 if the batch has more than `journal.batch.max-size` operations.
+     */
+    public List<JournalBatchResult> applyBatch(String userName, List<JournalBatchOperation> operations) {
+        if (operations.size() > maxBatchSize) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "A batch may hold at most " + maxBatchSize + " operations");
+        }
+        log.debug("Applying batch of {} journal operations for user: {}", operations.size(), userName);
+        UserModel user = userServices.findByUserName(userName);
+        if (user == null) {
+            log.warn("User not found: {}", userName);
+            return null;
+        }
+
+        JournalBatchResult[] results = new JournalBatchResult[operations.size()];
+        Set<ObjectId> targetIds = new HashSet<>();
+        for (int i = 0; i < operations.size(); i++) {
+            JournalBatchOperation operation = operations.get(i);
+            String error = validateBatchOperation(operation);
+            if (error == null && operation.getOp() != JournalBatchOperation.Type.CREATE
+                    && !targetIds.add(new ObjectId(operation.getId()))) {
+                error = "Journal entry appears more than once in the batch";
+            }
+            if (error != null) {
+                results[i] = new JournalBatchResult(i, operation == null ? null : operation.getId(), HttpStatus.BAD_REQUEST.value(), error);
+            }
+        }
+
+        // Owner and category of every targeted journal, in one query.
+        Map<String, JournalModel> existing = new HashMap<>();
+        if (!targetIds.isEmpty()) {
+            Query query = Query.query(Criteria.where("_id").in(targetIds));
+            query.fields().include("title", "content", "ownerId", "journal_category", "version"); // What the derived read models need.
+            for (JournalModel journal : mongoTemplate.find(query, JournalModel.class)) {
+                existing.put(journal.getId(), journal);
+            }
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, JournalModel.class);
+        List<Integer> bulkIndexes = new ArrayList<>(); // Position in the bulk write -> index of the operation.
+        Map<Integer, Query> deletes = new LinkedHashMap<>(); // Index of the operation -> its owner-scoped filter.
+        Map<Integer, JournalModel> created = new HashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < operations.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            JournalBatchOperation operation = operations.get(i);
+            if (operation.getOp() == JournalBatchOperation.Type.CREATE) {
+                JournalModel journal = JournalModel.builder()
+                        .id(new ObjectId().toHexString()) // Assigned here so the result can report it.
+                        .title(operation.getTitle())
+                        .content(operation.getContent())
+                        .journal_category(operation.getJournal_category())
+                        .ownerId(user.getId())
+                        .createdAt(now)
+                        .updatedAt(now)
+                        .version(0L)
+                        .build();
+                bulk.insert(journal);
+                created.put(i, journal);
+            } else {
+                JournalModel current = existing.get(operation.getId());
+                if (current == null) {
+                    results[i] = new JournalBatchResult(i, operation.getId(), HttpStatus.NOT_FOUND.value(), "Journal entry not found");
+                    continue;
+                }
+                if (!isOwner(user, current)) {
+                    log.warn("Unauthorized batch {} attempt by user: {}", operation.getOp(), userName);
+                    results[i] = new JournalBatchResult(i, operation.getId(), HttpStatus.UNAUTHORIZED.value(), "You are not authorized to change this journal");
+                    continue;
+                }
+                // The owner is part of the filter too, so the write cannot land on someone else's journal.
+                Query owned = Query.query(Criteria.where("_id").is(new ObjectId(operation.getId())).and("ownerId").is(user.getId()));
+                if (operation.getOp() == JournalBatchOperation.Type.UPDATE) {
+                    Update update = Update.update("updatedAt", now).inc("version", 1);
+                    if (operation.getTitle() != null) {
+                        update.set("title", operation.getTitle());
+                    }
+                    if (operation.getContent() != null) {
+                        update.set("content", operation.getContent());
+                    }
+                    if (operation.getJournal_category() != null) {
+                        update.set("journal_category", operation.getJournal_category());
+                    }
+                    bulk.updateOne(owned, update);
+                } else {
+                    // Sent on their own: a bulk only reports the total deleted, and a delete that matched
+                    // nothing (lost to a concurrent one) must not decrement the counters a second time.
+                    deletes.put(i, owned);
+                    continue;
+                }
+            }
+            bulkIndexes.add(i);
+        }
+
+        Set<Integer> failed = new HashSet<>();
+        if (!bulkIndexes.isEmpty()) {
+            try {
+                bulk.execute();
+            } catch (BulkOperationException e) {
+                for (BulkWriteError error : e.getErrors()) {
+                    int i = bulkIndexes.get(error.getIndex());
+                    log.error("Batch operation {} failed for user {}: {}", i, userName, error.getMessage());
+                    results[i] = new JournalBatchResult(i, operations.get(i).getId(), HttpStatus.INTERNAL_SERVER_ERROR.value(), "Write failed");
+                    failed.add(i);
+                }
+            }
+        }
+
+        // Updated entries are read back in one query, as the derived read models need whole documents.
+        List<ObjectId> updatedIds = new ArrayList<>();
+        for (int i : bulkIndexes) {
+            if (!failed.contains(i) && operations.get(i).getOp() == JournalBatchOperation.Type.UPDATE) {
+                updatedIds.add(new ObjectId(operations.get(i).getId()));
+            }
+        }
+        Map<String, JournalModel> updated = new HashMap<>();
+        if (!updatedIds.isEmpty()) {
+            for (JournalModel journal : journalRepository.findAllById(updatedIds)) {
+                updated.put(journal.getId(), journal);
+            }
+        }
+
+        for (int i : bulkIndexes) {
+            if (failed.contains(i)) {
+                continue;
+            }
+            JournalBatchOperation operation = operations.get(i);
+            if (operation.getOp() == JournalBatchOperation.Type.CREATE) {
+                JournalModel journal = created.get(i);
+                onJournalCreated(journal, userName);
+                results[i] = new JournalBatchResult(i, journal.getId(), HttpStatus.CREATED.value(), null);
+            } else if (operation.getOp() == JournalBatchOperation.Type.UPDATE) {
+                JournalModel journal = updated.get(operation.getId());
+                if (journal == null) {
+                    results[i] = new JournalBatchResult(i, operation.getId(), HttpStatus.NOT_FOUND.value(), "Journal entry not found");
+                    continue;
+                }
+                onJournalUpdated(journal, existing.get(operation.getId()), userName);
+                results[i] = new JournalBatchResult(i, operation.getId(), HttpStatus.OK.value(), null);
+            }
+        }
+
+        for (Map.Entry<Integer, Query> delete : deletes.entrySet()) {
+            int i = delete.getKey();
+            String id = operations.get(i).getId();
+            try {
+                if (mongoTemplate.remove(delete.getValue(), JournalModel.class).getDeletedCount() == 0) {
+                    results[i] = new JournalBatchResult(i, id, HttpStatus.NOT_FOUND.value(), "Journal entry not found");
+                    continue;
+                }
+            } catch (Exception e) {
+                log.error("Batch operation {} failed for user {}: {}", i, userName, e.getMessage());
+                results[i] = new JournalBatchResult(i, id, HttpStatus.INTERNAL_SERVER_ERROR.value(), "Write failed");
+                continue;
+            }
+            onJournalDeleted(existing.get(id), userName);
+            results[i] = new JournalBatchResult(i, id, HttpStatus.OK.value(), null);
+        }
+        log.info("Applied batch of {} journal operations for user: {}", operations.size(), userName);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * @return Why the operation cannot be applied, or null if it is well-formed.
+     */
+    private static String validateBatchOperation(JournalBatchOperation operation) {
+        if (operation == null || operation.getOp() == null) {
+            return "Missing op";
+        }
+        if (operation.getOp() == JournalBatchOperation.Type.CREATE) {
+            return operation.getTitle() == null || operation.getTitle().trim().isEmpty() ? "Title field can't be empty" : null;
+        }
+        if (operation.getId() == null || !ObjectId.isValid(operation.getId())) {
+            return "Invalid journal id";
+        }
+        if (operation.getTitle() != null && operation.getTitle().trim().isEmpty()) {
+            return "Title field can't be empty";
+        }
+        return null;
+    }
+
+    /**
+     * Record the outcome of a background image upload on a journal entry.
+     *
+     * @param journalId The journal entry the image belongs to.
+     * @param image The uploaded image, or null to leave `image_url` and `image_variants` unchanged.
+     * @param status The new image status.
+     */
+    public void updateImage(String journalId, UploadedImage image, ImageStatus status) {
+        updateImage(journalId, null, image, status);
+    }
+
+    /**
+     * Marks every entry FAILED whose image is still PENDING and that was last changed before the cutoff.
+     * Each entry is only changed if it is still PENDING, so an upload finishing at the same time wins.
+     *
+     * @return The number of entries marked FAILED.
+     */
+    public int failStalePendingImages(LocalDateTime cutoff) {
+        Query query = Query.query(Criteria.where("imageStatus").is(ImageStatus.PENDING).and("updatedAt").lt(cutoff));
+        query.fields().include("_id");
+        int failed = 0;
+        for (Document journal : mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(JournalModel.class))) {
+            if (updateImage(journal.getObjectId("_id").toHexString(), ImageStatus.PENDING, null, ImageStatus.FAILED)) {
+                failed++;
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * @param expectedStatus The status the entry must still have, or null to change it regardless.
+     * @return true if the entry was changed.
+     */
+    private boolean updateImage(String journalId, ImageStatus expectedStatus, UploadedImage image, ImageStatus status) {
+        log.debug("Setting image status of journal entry {} to {}", journalId, status);
+        Update update = Update.update("imageStatus", status).set("updatedAt", LocalDateTime.now()).inc("version", 1);
+        if (image != null) {
+            update.set("image_url", image.getUrl()).set("image_variants", image.getVariants());
+        }
+        Criteria filter = Criteria.where("_id").is(new ObjectId(journalId));
+        if (expectedStatus != null) {
+            filter.and("imageStatus").is(expectedStatus);
+        }
+        Query query = Query.query(filter);
+        query.fields().include("ownerId");
+        // Read raw: a projected JournalModel cannot be instantiated without its title.
+        Document journal = mongoTemplate.findAndModify(query, update, Document.class, mongoTemplate.getCollectionName(JournalModel.class));
+        if (journal != null) {
+            // Runs off the request thread, so the owner's name is looked up to expire their list ETag too.
+            String ownerId = journal.getString("ownerId");
+            String userName = ownerId == null ? null : userServices.getUserById(new ObjectId(ownerId))
+                    .map(UserModel::getUserName)
+                    .orElse(null);
+            journalChangeTracker.journalChanged(journalId, userName);
+            journalJsonCache.evict(journalId);
+        }
+        return journal != null;
+    }
+
     /**
      * Fetch all journal entries from the database.
      * @return List of all journal entries.
@@ -161,15 +609,194 @@ public class JournalServices {
         return journals;
     }
 
+    /**
+     * Search journal titles and contents through the in-memory index, best match first.
+     * Only the journals on the requested page are read from the database, in one query.
+     * Until the index is built (or when it is disabled) the database is searched instead, newest first.
+     */
+    public SearchResultPage searchJournals(String query, int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+        int pageNumber = Math.max(0, Math.min(page, maxSearchPage));
+        log.debug("Searching journals for: '{}', page: {}, size: {}", query, pageNumber, pageSize);
+
+        if (!journalSearchIndex.isReady()) {
+            return searchJournalsInDatabase(query, pageNumber, pageSize);
+        }
+        SearchHits hits = journalSearchIndex.search(query, pageNumber, pageSize);
+        List<ObjectId> ids = new ArrayList<>(hits.getIds().size());
+        for (String id : hits.getIds()) {
+            ids.add(new ObjectId(id));
+        }
+        Map<String, JournalModel> byId = new HashMap<>();
+        for (JournalModel journal : journalRepository.findAllById(ids)) {
+            byId.put(journal.getId(), journal);
+        }
+        List<JournalModel> items = new ArrayList<>(ids.size());
+        for (String id : hits.getIds()) {
+            JournalModel journal = byId.get(id);
+            if (journal != null) {
+                items.add(journal);
+            }
+        }
+        return new SearchResultPage(query, pageNumber, pageSize, hits.getTotal(), items);
+    }
+
+    /**
+     * Matches every query term against title or content with a case-insensitive regex. Slow on large
+     * collections, as no index can serve it, so it is only used while the in-memory index is not ready.
+     */
+    private SearchResultPage searchJournalsInDatabase(String query, int pageNumber, int pageSize) {
+        Set<String> terms = new LinkedHashSet<>(JournalSearchIndex.tokenize(query));
+        if (terms.isEmpty()) {
+            return new SearchResultPage(query, pageNumber, pageSize, 0, Collections.<JournalModel>emptyList());
+        }
+        List<Criteria> termCriteria = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            String pattern = Pattern.quote(term);
+            termCriteria.add(new Criteria().orOperator(
+                    Criteria.where("title").regex(pattern, "i"),
+                    Criteria.where("content").regex(pattern, "i")));
+        }
+        Query search = new Query(new Criteria().andOperator(termCriteria.toArray(new Criteria[0])));
+        long total = mongoTemplate.count(search, JournalModel.class);
+        search.with(Sort.by(Sort.Direction.DESC, "updatedAt"))
+                .skip((long) pageNumber * pageSize)
+                .limit(pageSize);
+        List<JournalModel> items = mongoTemplate.find(search, JournalModel.class);
+        log.debug("Search index not ready; database search for '{}' matched {} journals", query, total);
+        return new SearchResultPage(query, pageNumber, pageSize, (int) Math.min(total, Integer.MAX_VALUE), items);
+    }
+
+    /**
+     * Per-category journal counts, overall and for one user, read from the materialized counters.
+     *
+     * @return A map with "overall" and "user" category counts, or null if the user does not exist.
+     */
+    public Map<String, Map<String, Long>> getCategoryFacets(String userName) {
+        UserModel user = userServices.findByUserName(userName);
+        if (user == null) {
+            log.warn("User not found: {}", userName);
+            return null;
+        }
+        Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+        facets.put("overall", categoryCounterService.getCounts(CategoryCountModel.ALL_USERS));
+        facets.put("user", categoryCounterService.getCounts(user.getId()));
+        return facets;
+    }
+
+    /**
+     * Fetch all journal entries owned by a user, newest first.
+     *
+     * @return The user's journal entries, or null if the user does not exist.
+     */
+    public List<JournalModel> findJournalsByUserName(String userName) {
+        log.debug("Fetching journal entries owned by user: {}", userName);
+        UserModel user = userServices.findByUserName(userName);
+        if (user == null) {
+            log.warn("User not found: {}", userName);
+            return null;
+        }
+        return journalRepository.findByOwnerIdOrderByCreatedAtDesc(user.getId());
+    }
+
+    /**
+     * Stream every journal entry through a Mongo cursor, handing each document to the consumer
+     * as soon as it is read. Nothing is collected in memory, so heap use stays flat regardless
+     * of the collection size; the cursor is always closed, even if the consumer throws.
+     *
+     * @param consumer Callback invoked once per journal entry, in natural order.
+     * @return The number of journal entries streamed.
+     */
+    public long streamAllJournals(Consumer<JournalModel> consumer) {
+        log.info("Streaming all journal entries with batch size: {}", exportBatchSize);
+        Query query = new Query().cursorBatchSize(exportBatchSize);
+        long count = 0;
+        try (CloseableIterator<JournalModel> journals = mongoTemplate.stream(query, JournalModel.class)) {
+            while (journals.hasNext()) {
+                consumer.accept(journals.next());
+                count++;
+            }
+        }
+        log.info("Streamed {} journal entries.", count);
+        return count;
+    }
+
+    /**
+     * Fetch one page of journal entries, newest first, using keyset pagination on `_id`.
+     * Each call reads at most `limit + 1` documents through the `_id` index, so the cost
+     * stays the same however deep the client pages.
+     *
+     * @param cursor Opaque cursor returned with the previous page, or null for the first page.
+     * @param limit Requested page size; clamped to [1, journal.page.max-size].
+     * @return The page of journal entries and the cursor for the next page.
+     * @throws IllegalArgumentException if the cursor is malformed.
+     */
+    public CursorPage<JournalModel> findJournalsPage(String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        ObjectId after = CursorUtil.decode(cursor);
+        log.debug("Fetching journal page after: {} with size: {}", after, pageSize);
+
+        // Read one extra document to know whether another page follows.
+        Pageable pageable = PageRequest.of(0, pageSize + 1, Sort.by(Sort.Direction.DESC, "id"));
+        List<JournalModel> journals = after == null
+                ? journalRepository.findAllBy(pageable)
+                : journalRepository.findByIdLessThan(after, pageable);
+
+        String nextCursor = null;
+        if (journals.size() > pageSize) {
+            journals = journals.subList(0, pageSize);
+            nextCursor = CursorUtil.encode(journals.get(pageSize - 1).getId());
+        }
+        return new CursorPage<>(journals, nextCursor);
+    }
+
+    /**
+     * Get the JSON of a journal entry by ID, reusing cached bytes while the entry is unchanged.
+     * Only `updatedAt` is read to validate the cache, so a hit costs neither the transfer of the
+     * content nor its serialization.
+     *
+     * @return The UTF-8 JSON of the journal entry, or null if it does not exist.
+     * @throws JsonProcessingException if the entry cannot be serialized.
+     */
+    public byte[] findJournalJsonById(ObjectId id) throws JsonProcessingException {
+        if (!journalJsonCache.isEnabled()) {
+            Optional<JournalModel> journal = journalRepository.findById(id);
+            return journal.isPresent() ? objectMapper.writeValueAsBytes(journal.get()) : null;
+        }
+
+        String collection = mongoTemplate.getCollectionName(JournalModel.class);
+        Query versionQuery = Query.query(Criteria.where("_id").is(id));
+        versionQuery.fields().include("updatedAt");
+        Document version = mongoTemplate.findOne(versionQuery, Document.class, collection);
+        if (version == null) {
+            log.warn("Journal entry not found: {}", id);
+            return null;
+        }
+        Date updatedAt = version.getDate("updatedAt");
+        byte[] json = journalJsonCache.get(id.toHexString(), updatedAt);
+        if (json != null) {
+            return json;
+        }
+
+        Optional<JournalModel> journal = journalRepository.findById(id);
+        if (!journal.isPresent()) {
+            return null;
+        }
+        json = objectMapper.writeValueAsBytes(journal.get());
+        // Stored under the version read first: if the entry changed in between, the next read misses instead of serving stale bytes.
+        journalJsonCache.put(id.toHexString(), updatedAt, json);
+        return json;
+    }
+
     /**
      * Get a journal entry by ID
      */
     public ResponseEntity<?> findJournalById(ObjectId id) {
-        log.info("Fetching journal entry by ID: {}", id);
+        log.debug("Fetching journal entry by ID: {}", id);
         Optional<JournalModel> journal = journalRepository.findById(id);
 
         if (journal.isPresent()) {
-            log.info("Journal entry found: {}", id);
+            log.debug("Journal entry found: {}", id);
             return new ResponseEntity<>(journal.get(), HttpStatus.OK);
         } else {
             log.warn("Journal entry not found: {}", id);
@@ -180,10 +807,22 @@ public class JournalServices {
 
     /**
      * Delete a journal entry by ID and dissociate it from the u ser
+     *
+     * @return 200 once deleted; 404, 401, or 409 (CONFLICT) if the entry was changed after it was read.
      */
-    @Transactional
     public ResponseEntity<?> deleteJournalById(ObjectId journalId, String userName) {
-        log.info("Deleting journal entry: {} for user: {}", journalId, userName);
+        try {
+            return inWriteScope(() -> doDeleteJournalById(journalId, userName));
+        } catch (OptimisticLockingFailureException | DuplicateKeyException e) {
+            // Stale version (atomic mode), or a write conflict inside the transaction, which Mongo reports with
+            // code 112 and Spring translates to a duplicate key; thrown out of the write scope so it rolls back.
+            log.info("Journal entry {} was changed concurrently; delete by {} refused.", journalId, userName);
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Journal entry was modified since it was read");
+        }
+    }
+
+    private ResponseEntity<?> doDeleteJournalById(ObjectId journalId, String userName) {
+        log.debug("Deleting journal entry: {} for user: {}", journalId, userName);
         try {
             //fetch the existing journl entry
             JournalModel existingJournal = journalRepository.findById(journalId)
@@ -194,24 +833,120 @@ public class JournalServices {
             //validate if the user ouns the journal entry
             UserModel user = userServices.findByUserName(userName);
 
-            if (user == null || !user.getJournalEntries().contains(existingJournal)) {
+            if (!isOwner(user, existingJournal)) {
                 log.warn("Unauthorized delete attempt by user: {}", userName);
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Your are not authorized to delete this journal");
             }
 
-            // Remove the journal entry from the user's list
-            user.getJournalEntries().remove(existingJournal);
-            userServices.saveUser(user);
-
-            // Delete the journal entry
-            journalRepository.deleteById(journalId);
+            // Delete the journal entry, only at the version read, so the counters drop the category it really had
+            journalRepository.delete(existingJournal);
+            onJournalDeleted(existingJournal, userName);
 
             log.info("Journal entry deleted successfully: {}", journalId);
             return new ResponseEntity<>("Journal entry deleted successfully", HttpStatus.OK);
+        } catch (ResponseStatusException e) {
+            return ResponseEntity.status(e.getStatus()).body(e.getReason());
+        } catch (OptimisticLockingFailureException | DuplicateKeyException e) {
+            throw e; // Answered 409 by deleteJournalById, after the write scope was rolled back.
         } catch (Exception e) {
             log.error("Error deleting journal entry: {}", e.getMessage(), e);
             return new ResponseEntity<>("An error occurred while deleting the entry.", HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
-}
 
+    /**
+     * Runs a journal write in a transaction in the transactional write mode, or as is in the atomic one.
+     */
+    private <T> T inWriteScope(Supplier<T> write) {
+        return transactionTemplate != null ? transactionTemplate.execute(status -> write.get()) : write.get();
+    }
+
+    /**
+     * Gives an entry written before `version` existed its initial version, so it can be saved with the
+     * optimistic check instead of being taken for a new entry. The repair sweep does the same in bulk.
+     */
+    private void ensureVersioned(JournalModel journal) {
+        if (journal.getVersion() != null) {
+            return;
+        }
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(new ObjectId(journal.getId())).and("version").exists(false)),
+                Update.update("version", 0L), JournalModel.class);
+        journal.setVersion(0L);
+    }
+
+    /**
+     * Keep derived read models in step after a journal entry was created.
+     */
+    private void onJournalCreated(JournalModel journal, String userName) {
+        categoryCounterService.onCreated(journal);
+        afterCommit(() -> {
+            journalChangeTracker.journalChanged(journal.getId(), userName);
+            journalSearchIndex.index(journal, null);
+        });
+    }
+
+    /**
+     * Keep derived read models in step after a journal entry was changed.
+     *
+     * @param previous The entry as read before the write, with at least its title, content, category and version.
+     */
+    private void onJournalUpdated(JournalModel journal, JournalModel previous, String userName) {
+        categoryCounterService.onCategoryChanged(journal.getOwnerId(), previous.getJournal_category(), journal.getJournal_category());
+        afterCommit(() -> {
+            journalChangeTracker.journalChanged(journal.getId(), userName);
+            journalJsonCache.evict(journal.getId());
+            journalSearchIndex.index(journal, previous);
+        });
+    }
+
+    /**
+     * Keep derived read models in step after a journal entry was deleted.
+     */
+    private void onJournalDeleted(JournalModel journal, String userName) {
+        categoryCounterService.onDeleted(journal);
+        afterCommit(() -> {
+            journalChangeTracker.journalChanged(journal.getId(), userName);
+            journalJsonCache.evict(journal.getId());
+            journalSearchIndex.remove(journal);
+        });
+    }
+
+    /**
+     * Runs in-memory bookkeeping once the write is visible to readers: after the commit inside a
+     * transaction, right away otherwise. Bumped earlier, an ETag could be handed out with the old body
+     * and then validate that stale body until the next write.
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Check whether the given user owns the journal entry.
+     */
+    /**
+     * Copies what the derived read models need to know about an entry before it is changed in place.
+     */
+    private static JournalModel snapshot(JournalModel journal) {
+        return JournalModel.builder()
+                .id(journal.getId())
+                .title(journal.getTitle())
+                .content(journal.getContent())
+                .journal_category(journal.getJournal_category())
+                .ownerId(journal.getOwnerId())
+                .version(journal.getVersion())
+                .build();
+    }
+
+    private boolean isOwner(UserModel user, JournalModel journal) {
+        return user != null && user.getId() != null && user.getId().equals(journal.getOwnerId());
+    }
+}
@@ -0,0 +1,39 @@
+package net.backend.journalApp.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.UUID;
+
+/**
+ * Stores images on the local filesystem instead of Cloudinary.
+ * Meant for tests and local runs; enabled with `image.upload.target=local`.
+ */
+@Slf4j
+@Service
+@Primary
+@ConditionalOnProperty(name = "image.upload.target", havingValue = "local")
+public class LocalImageUploadTarget implements ImageUploadTarget {
+
+    @Value("${image.upload.local.dir:${java.io.tmpdir}/journal-images}")
+    private String directory; // Where uploaded images are copied to.
+
+    @Value("${image.upload.local.base-url:file://${java.io.tmpdir}/journal-images}")
+    private String baseUrl; // Prefix of the URLs handed back for stored images.
+
+    @Override
+    public String upload(Path file, String originalFilename) throws IOException {
+        Path dir = Files.createDirectories(Paths.get(directory));
+        String name = UUID.randomUUID().toString();
+        Files.copy(file, dir.resolve(name));
+        log.info("Stored image {} locally as: {}", originalFilename, name);
+        return baseUrl + "/" + name;
+    }
+}
@@ -0,0 +1,66 @@
+package net.backend.journalApp.services;
+
+import lombok.extern.slf4j.Slf4j;
+import net.backend.journalApp.model.JournalModel;
+import net.backend.journalApp.repository.ReactiveJournalRepository;
+import net.backend.journalApp.repository.ReactiveUserRepository;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking journal reads on the reactive Mongo driver.
+ * No thread waits on the database: results are pushed to the subscriber as they arrive,
+ * and a slow subscriber slows the cursor down instead of buffering the result set.
+ */
+@Slf4j
+@Service
+public class ReactiveJournalServices {
+
+    @Autowired
+    private ReactiveJournalRepository reactiveJournalRepository;
+
+    @Autowired
+    private ReactiveUserRepository reactiveUserRepository;
+
+    @Value("${journal.page.max-size:100}")
+    private int maxPageSize; // Upper bound on the page size clients may request.
+
+    /**
+     * Get a journal entry by ID, or an empty Mono if it does not exist.
+     */
+    public Mono<JournalModel> findJournalById(ObjectId id) {
+        log.debug("Fetching journal entry by ID reactively: {}", id);
+        return reactiveJournalRepository.findById(id);
+    }
+
+    /**
+     * Stream one page of journal entries, newest first, using keyset pagination on `_id`.
+     *
+     * @param afterId Id of the last entry the client already has, or null for the first page.
+     * @param limit Requested page size; clamped to [1, journal.page.max-size].
+     */
+    public Flux<JournalModel> findJournalsPage(ObjectId afterId, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        log.debug("Streaming journal page after: {} with size: {}", afterId, pageSize);
+        Pageable pageable = PageRequest.of(0, pageSize, Sort.by(Sort.Direction.DESC, "id"));
+        return afterId == null
+                ? reactiveJournalRepository.findAllBy(pageable)
+                : reactiveJournalRepository.findByIdLessThan(afterId, pageable);
+    }
+
+    /**
+     * Stream every journal entry owned by a user, newest first; empty if the user does not exist.
+     */
+    public Flux<JournalModel> findJournalsByUserName(String userName) {
+        log.debug("Streaming journal entries owned by user: {}", userName);
+        return reactiveUserRepository.findByUserName(userName)
+                .flatMapMany(user -> reactiveJournalRepository.findByOwnerIdOrderByCreatedAtDesc(user.getId()));
+    }
+}
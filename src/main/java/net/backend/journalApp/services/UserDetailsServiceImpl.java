@@ -1,47 +1,129 @@
 package net.backend.journalApp.services;
 
 import lombok.extern.slf4j.Slf4j;
+import net.backend.journalApp.cache.BoundedTtlCache;
 import net.backend.journalApp.model.UserModel;
 import net.backend.journalApp.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+
 @Slf4j
 // Service annotation to indicate this class is a service component for Spring
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     // Autowired to inject the UserRepository for database access
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${user-details.cache.max-size:10000}")
+    private int cacheMaxSize; // Maximum number of users kept in the cache.
+
+    @Value("${user-details.cache.ttl-ms:300000}")
+    private long cacheTtlMillis; // How long a cached user is trusted before it is reloaded.
+
+    // Cache of loaded users, invalidated by UserServices whenever a user changes.
+    private BoundedTtlCache<String, UserDetails> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = new BoundedTtlCache<>(cacheMaxSize, cacheTtlMillis);
+    }
+
     // Method to load user details by username
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        log.info("Attempting to load user by username: {}", username);
+        UserDetails cached = cache.get(username);
+        if (cached != null) {
+            log.debug("User details served from cache: {}", username);
+            // Hand out a copy: Spring Security erases credentials on the instances it is given.
+            return User.withUserDetails(cached).build();
+        }
+
+        log.debug("Attempting to load user by username: {}", username);
 
         // Retrieve the user from the repository by the given username
         UserModel user = userRepository.findByUserName(username);
 
         // Check if the user exists
         if (user != null) {
-            log.info("User found: {}", username);
+            log.debug("User found: {}", username);
             // Return a User object containing the username, password, and roles
-            return User.builder()
+            UserDetails userDetails = User.builder()
                     .username(user.getUserName())  // Set the username
                     .password(user.getPassword())  // Set the password (should be encrypted in real cases)
                     .roles(user.getRoles().toArray(new String[0]))  // Set roles, converting List to Array
                     .build();
+            cache.put(username, userDetails);
+            return User.withUserDetails(userDetails).build();
         }
 
         log.warn("User not found with username: {}", username);
         // If user is not found, throw UsernameNotFoundException
         throw new UsernameNotFoundException("User not found with username: " + username);
     }
+
+    /**
+     * Stores a rehash of the password the user just logged in with, made at the configured BCrypt cost.
+     * The password itself is unchanged, so the token version is not bumped and issued tokens stay valid.
+     * Only replaces the hash the login was verified against, so a password changed concurrently is never
+     * overwritten with the old one.
+     * Best effort: if the write fails the old hash keeps working and the rehash is retried on the next login.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        try {
+            long updated = mongoTemplate.updateFirst(Query.query(Criteria.where("userName").is(user.getUsername())
+                            .and("password").is(user.getPassword())),
+                    Update.update("password", newPassword), UserModel.class).getModifiedCount();
+            evict(user.getUsername());
+            if (updated == 0) {
+                log.info("Password of user {} changed since login; rehash not stored", user.getUsername());
+                return user;
+            }
+            log.info("Password hash of user {} upgraded to the configured cost", user.getUsername());
+            return User.withUserDetails(user).password(newPassword).build();
+        } catch (Exception e) {
+            log.warn("Failed to store the rehashed password of user {}", user.getUsername(), e);
+            return user;
+        }
+    }
+
+    /**
+     * Drops a user from the cache so the next lookup reads the current state from the database.
+     */
+    public void evict(String username) {
+        if (username != null) {
+            cache.remove(username);
+        }
+    }
+
+    public long getCacheHits() {
+        return cache.getHits();
+    }
+
+    public long getCacheMisses() {
+        return cache.getMisses();
+    }
+
+    public int getCacheSize() {
+        return cache.size();
+    }
 }
 
 
@@ -1,15 +1,31 @@
 package net.backend.journalApp.services;
 
 import lombok.extern.slf4j.Slf4j;
+import net.backend.journalApp.cache.JournalChangeTracker;
+import net.backend.journalApp.cache.UserVersionTable;
+import net.backend.journalApp.model.CursorPage;
+import net.backend.journalApp.model.JournalModel;
 import net.backend.journalApp.model.UserModel;
+import net.backend.journalApp.model.UserSummary;
 import net.backend.journalApp.repository.UserRepository;
+import net.backend.journalApp.security.HashingCapacityExceededException;
+import net.backend.journalApp.utils.CursorUtil;
+import org.bson.Document;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 // Service annotation to indicate this class is a service component for Spring
@@ -21,13 +37,35 @@ public class UserServices {
     @Autowired
     private UserRepository userRepository;
 
-    // Password encoder for hashing the user password
-    private static final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    // Cached user details used for authentication; evicted whenever a user is written.
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    // Revokes self-contained tokens issued before a credential change.
+    @Autowired
+    private UserVersionTable userVersionTable;
+
+    // Expires the journal list ETags of renamed or deleted users.
+    @Autowired
+    private JournalChangeTracker journalChangeTracker;
+
+    // Used for projected reads that should not materialize whole user documents
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // Upper bound on the page size of the admin user listing
+    @Value("${admin.users.page.max-size:200}")
+    private int maxUserPageSize;
+
+    // Password encoder for hashing the user password; the shared, timed BCrypt bean
+    @Autowired
+    private PasswordEncoder passwordEncoder;
 
     // Method to save a user to the repository
     public void saveUser(UserModel user){
-        log.info("Saving user: {}", user.getUserName());
+        log.debug("Saving user: {}", user.getUserName());
         userRepository.save(user);                              // Save user in the database
+        userDetailsService.evict(user.getUserName());
         log.info("User saved successfully: {}", user.getUserName());
     }
 
@@ -40,8 +78,11 @@ public class UserServices {
             user.setPassword(passwordEncoder.encode(user.getPassword()));
             user.setRoles(user.getRoles());  // Assign roles to the user
             userRepository.save(user);  // Save the user
+            userDetailsService.evict(user.getUserName());
             log.info("New user signed up successfully: {}", user.getUserName());
             return true;
+        }catch (HashingCapacityExceededException e){
+            throw e; // Overload, not a failed signup; the caller answers 503.
         }catch (Exception e){
             // Log the error if any exception occurs during user signup
             log.error("Something went wrong during signup for user: {}", user.getUserName(), e);
@@ -57,12 +98,69 @@ public class UserServices {
         return users;
     }
 
+    /**
+     * One page of user summaries for the admin listing, newest users first.
+     * Only the summary fields are read from the users collection, and the journal counts of the
+     * whole page come from a single aggregation over the journals' owner index.
+     *
+     * @param cursor Opaque cursor from the previous page, or null for the first page.
+     * @param limit Requested page size; clamped to [1, admin.users.page.max-size].
+     * @throws IllegalArgumentException if the cursor is malformed.
+     */
+    public CursorPage<UserSummary> findUserSummariesPage(String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, maxUserPageSize));
+        ObjectId after = CursorUtil.decode(cursor);
+        log.info("Fetching user summaries after: {} with size: {}", after, pageSize);
+
+        // Read one extra document to know whether another page follows.
+        Query query = new Query()
+                .with(Sort.by(Sort.Direction.DESC, "_id"))
+                .limit(pageSize + 1);
+        if (after != null) {
+            query.addCriteria(Criteria.where("_id").lt(after));
+        }
+        query.fields().include("userName", "roles", "createdAt");
+        List<UserSummary> users = mongoTemplate.find(query, UserSummary.class, mongoTemplate.getCollectionName(UserModel.class));
+
+        String nextCursor = null;
+        if (users.size() > pageSize) {
+            users = users.subList(0, pageSize);
+            nextCursor = CursorUtil.encode(users.get(pageSize - 1).getId());
+        }
+
+        Map<String, Long> journalCounts = countJournalsByOwner(users);
+        for (UserSummary user : users) {
+            Long count = journalCounts.get(user.getId());
+            user.setJournalCount(count != null ? count : 0L);
+        }
+        return new CursorPage<>(users, nextCursor);
+    }
+
+    // Counts the journal entries of the given users with one $match/$group over the ownerId index
+    private Map<String, Long> countJournalsByOwner(List<UserSummary> users) {
+        Map<String, Long> counts = new HashMap<>();
+        if (users.isEmpty()) {
+            return counts;
+        }
+        List<String> ownerIds = new ArrayList<>(users.size());
+        for (UserSummary user : users) {
+            ownerIds.add(user.getId());
+        }
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("ownerId").in(ownerIds)),
+                Aggregation.group("ownerId").count().as("count"));
+        for (Document row : mongoTemplate.aggregate(aggregation, JournalModel.class, Document.class)) {
+            counts.put(String.valueOf(row.get("_id")), ((Number) row.get("count")).longValue());
+        }
+        return counts;
+    }
+
     // Method to find a user by their ID
     public Optional<UserModel> getUserById(ObjectId id){
-        log.info("Fetching user with ID: {}", id);
+        log.debug("Fetching user with ID: {}", id);
         Optional<UserModel> user = userRepository.findById(id);
         if (user.isPresent()) {
-            log.info("User found with ID: {}", id);
+            log.debug("User found with ID: {}", id);
         } else {
             log.warn("User not found with ID: {}", id);
         }
@@ -76,6 +174,9 @@ public class UserServices {
 
         if (user.isPresent()) {
             userRepository.deleteById(id);
+            userVersionTable.record(user.get().getId(), Long.MAX_VALUE); // No token of a deleted user stays valid.
+            userDetailsService.evict(user.get().getUserName());
+            journalChangeTracker.userChanged(user.get().getUserName()); // A new user may take the name over.
             log.info("User deleted successfully with ID: {}", id);
         } else {
             log.warn("User not found with ID: {}, unable to delete", id);
@@ -83,15 +184,33 @@ public class UserServices {
         return user;
     }
 
+    /**
+     * Find the id of a user by username, reading only `_id` through the unique userName index.
+     * Not cached: the id scopes writes to the user's own journals, so it must reflect renames and
+     * deletes made on any instance, or a user taking over a freed name would act as its previous owner.
+     *
+     * @return The user's id, or null if no such user exists.
+     */
+    public String findUserIdByUserName(String userName) {
+        Query query = Query.query(Criteria.where("userName").is(userName));
+        query.fields().include("_id");
+        Document user = mongoTemplate.findOne(query, Document.class, mongoTemplate.getCollectionName(UserModel.class));
+        if (user == null) {
+            log.warn("User not found: {}", userName);
+            return null;
+        }
+        return user.getObjectId("_id").toHexString();
+    }
+
     /**
      * Find user by username
      */
     public UserModel findByUserName(String userName) {
-        log.info("Searching for user by username: {}", userName);
+        log.debug("Searching for user by username: {}", userName);
         UserModel user = userRepository.findByUserName(userName);
 
         if (user != null) {
-            log.info("User found: {}", userName);
+            log.debug("User found: {}", userName);
         } else {
             log.warn("User not found: {}", userName);
         }
@@ -107,6 +226,7 @@ public class UserServices {
         Optional<UserModel> userOptional = userRepository.findById(userId);
         if (userOptional.isPresent()) {
             UserModel user = userOptional.get();
+            String previousUserName = user.getUserName();
 
             // Update username if provided
             if (newUserName != null && !newUserName.trim().isEmpty()) {
@@ -120,7 +240,14 @@ public class UserServices {
                 user.setPassword(passwordEncoder.encode(newPassword)); // Encrypt password before saving
             }
 
+            // Any credential change invalidates self-contained tokens issued for the previous version.
+            user.setTokenVersion(user.getTokenVersion() + 1);
             userRepository.save(user);
+            userVersionTable.record(user.getId(), user.getTokenVersion()); // Covers tokens issued under the previous name too.
+            userDetailsService.evict(previousUserName);
+            userDetailsService.evict(user.getUserName());
+            journalChangeTracker.userChanged(previousUserName);
+            journalChangeTracker.userChanged(user.getUserName());
             log.info("User details updated successfully for user ID: {}", userId);
             return true;
         } else {
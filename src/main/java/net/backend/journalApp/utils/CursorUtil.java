@@ -0,0 +1,42 @@
+package net.backend.journalApp.utils;
+
+import org.bson.types.ObjectId;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes and decodes the opaque cursors used by keyset-paginated endpoints.
+ * A cursor wraps the `_id` of the last document on a page; since ObjectIds embed
+ * their creation time, ordering by `_id` is also ordering by creation.
+ */
+public final class CursorUtil {
+
+    private CursorUtil() {
+    }
+
+    /**
+     * Builds an opaque cursor pointing after the given document id.
+     */
+    public static String encode(String id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(id.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor produced by {@link #encode(String)}.
+     *
+     * @return the ObjectId of the last document of the previous page, or null if no cursor was given.
+     * @throws IllegalArgumentException if the cursor is malformed.
+     */
+    public static ObjectId decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        String id = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        if (!ObjectId.isValid(id)) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return new ObjectId(id);
+    }
+}
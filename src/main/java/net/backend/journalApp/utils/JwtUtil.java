@@ -1,13 +1,25 @@
 package net.backend.journalApp.utils;
 
 import lombok.extern.slf4j.Slf4j;
+import net.backend.journalApp.cache.BoundedTtlCache;
+import net.backend.journalApp.model.UserModel;
 import org.springframework.beans.factory.annotation.Value;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import javax.annotation.PostConstruct;
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import io.jsonwebtoken.SignatureAlgorithm;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -22,60 +34,123 @@ public class JwtUtil {
     @Value("${secret.api.key}")
     private String SECRET_KEY;
 
+    @Value("${jwt.self-contained.enabled:false}")
+    private boolean selfContained; // When true, tokens carry roles and a user version so requests need no user lookup.
+
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private int verifiedCacheMaxSize; // Upper bound on the number of verified tokens kept in memory.
+
+
+    public static final String ROLES_CLAIM = "roles";
+
+    public static final String USER_VERSION_CLAIM = "ver";
+
+    public static final String USER_ID_CLAIM = "uid"; // Revocations are keyed by id, which a new user can never take over.
 
     // ✅ Set expiration to 24 hours
     private final long EXPIRATION_TIME = 1000 * 60 * 60 * 24;
 
-    private SecretKey getSigningKey() {
-        log.debug("Generating signing key for JWT...");
-        return Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+    private SecretKey signingKey; // HMAC key derived once from SECRET_KEY.
+
+    private JwtParser jwtParser; // Thread-safe parser bound to the signing key, reused for every token.
+
+    private BoundedTtlCache<String, Claims> verifiedTokens; // SHA-256 of a token -> its verified claims, kept until the token expires.
+
+    /**
+     * Builds the signing key, the parser and the verified-token cache once at startup.
+     * The secret is Base64-encoded, matching how tokens have always been signed.
+     */
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY));
+        jwtParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        verifiedTokens = new BoundedTtlCache<>(verifiedCacheMaxSize, 0);
+    }
+
+    /**
+     * Verifies a token and returns its claims, parsing and checking the signature at most once per token.
+     * Tokens seen before are answered from the cache until they expire, skipping the signature check.
+     *
+     * @param token The compact JWT.
+     * @return The verified claims, or null if the token is malformed, tampered with or expired.
+     */
+    public Claims verifyToken(String token) {
+        String cacheKey = hash(token);
+        Claims claims = verifiedTokens.get(cacheKey);
+        if (claims != null) {
+            return claims;
+        }
+
+        try {
+            claims = jwtParser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            log.warn("Rejected JWT: {}", e.getClass().getSimpleName()); // Parser messages can echo token contents.
+            return null;
+        }
+
+        Date expiration = claims.getExpiration();
+        if (expiration != null) {
+            verifiedTokens.put(cacheKey, claims, expiration.getTime());
+        }
+        return claims;
     }
 
     public String extractUsername(String token) {
-        log.info("Extracting username from token...");
+        log.debug("Extracting username from token...");
         return extractClaim(token, Claims::getSubject);
     }
 
     public Date extractExpiration(String token) {
-        log.info("Extracting expiration date from token...");
+        log.debug("Extracting expiration date from token...");
         return extractClaim(token, Claims::getExpiration);
     }
 
     private <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
         log.debug("Extracting claim from token...");
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = verifyToken(token);
+        if (claims == null) {
+            throw new JwtException("Invalid or expired JWT");
+        }
         return claimsResolver.apply(claims);
     }
 
-    private Claims extractAllClaims(String token) {
-        log.info("Parsing JWT to extract claims...");
-        try {
-            return Jwts.parser()
-                .setSigningKey(SECRET_KEY)
-                .parseClaimsJws(token)
-                .getBody();
-        } catch (Exception e) {
-            log.error("Failed to extract claims from token. Invalid token: {}", token, e);
-            throw e;
-        }
+    public String generateToken(String username) {
+        log.debug("Generating new JWT for user: {}", username);
+        Map<String, Object> claims = new HashMap<>();
+        String token = createToken(claims, username);
+        log.debug("Generated JWT successfully for user: {}", username);
+        return token;
     }
 
-    private boolean isTokenExpired(String token) {
-        boolean expired = extractExpiration(token).before(new Date());
-        if (expired) {
-            log.warn("Token is expired: {}", token);
-        } else {
-            log.info("Token is still valid.");
+    /**
+     * Generates a token for the user. In self-contained mode the token also carries the user's
+     * roles and version, so later requests can be authenticated from the claims alone.
+     */
+    public String generateToken(UserModel user) {
+        if (!selfContained) {
+            return generateToken(user.getUserName());
         }
-        return expired;
+        log.debug("Generating new self-contained JWT for user: {}", user.getUserName());
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(ROLES_CLAIM, user.getRoles() != null ? user.getRoles() : Collections.emptyList());
+        claims.put(USER_VERSION_CLAIM, user.getTokenVersion());
+        claims.put(USER_ID_CLAIM, user.getId());
+        return createToken(claims, user.getUserName());
     }
 
-    public String generateToken(String username) {
-        log.info("Generating new JWT for user: {}", username);
-        Map<String, Object> claims = new HashMap<>();
-        String token = createToken(claims, username);
-        log.info("Generated JWT successfully for user: {}", username);
-        return token;
+    /**
+     * @return true if self-contained tokens are issued and trusted without a user lookup.
+     */
+    public boolean isSelfContained() {
+        return selfContained;
+    }
+
+    /**
+     * @return true if the verified claims carry the roles, user id and version of a self-contained token.
+     */
+    public static boolean hasEmbeddedRoles(Claims claims) {
+        return claims.get(ROLES_CLAIM) instanceof List && claims.get(USER_VERSION_CLAIM) instanceof Number
+                && claims.get(USER_ID_CLAIM) instanceof String;
     }
 
 
@@ -87,18 +162,26 @@ public class JwtUtil {
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))  // ✅ Token valid for 24 hours
-                .signWith(SignatureAlgorithm.HS256, SECRET_KEY)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public boolean validateToken(String token, UserDetails userDetails) {
-        log.info("Validating token for user: {}", userDetails.getUsername());
-        final String username = extractUsername(token);
-//        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
-        boolean isValid = username.equals(userDetails.getUsername()) && !isTokenExpired(token);
+        Claims claims = verifyToken(token);
+        return claims != null && validateToken(claims, userDetails);
+    }
+
+    /**
+     * Checks already-verified claims against the loaded user, without parsing the token again.
+     */
+    public boolean validateToken(Claims claims, UserDetails userDetails) {
+        log.debug("Validating token for user: {}", userDetails.getUsername());
+        final String username = claims.getSubject();
+        boolean isValid = userDetails.getUsername().equals(username)
+                && claims.getExpiration() != null && claims.getExpiration().after(new Date());
 
         if (isValid) {
-            log.info("Token validation successful for user: {}", username);
+            log.debug("Token validation successful for user: {}", username);
         } else {
             log.warn("Token validation failed for user: {}", username);
         }
@@ -106,7 +189,16 @@ public class JwtUtil {
         return isValid;
     }
 
+    /**
+     * Hashes a token for use as a cache key, so raw tokens are never kept in memory.
+     */
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
 
 }
-
-
@@ -0,0 +1,132 @@
+package net.backend.journalApp.controller;
+
+import net.backend.journalApp.model.JournalModel;
+import net.backend.journalApp.model.UserModel;
+import net.backend.journalApp.services.UserServices;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * The delete endpoint reports what the service did, including refusals, instead of answering 200 for any response.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class JournalControllerDeleteTest {
+
+    @Autowired
+    private JournalController journalController;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @SpyBean
+    private UserServices userServices;
+
+    private UserModel owner;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.remove(new Query(), UserModel.class);
+        mongoTemplate.remove(new Query(), JournalModel.class);
+        owner = insertUser("owner");
+        insertUser("someone-else");
+        authenticate("owner");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void deletesOwnJournal() {
+        JournalModel journal = insertJournal(owner);
+
+        ResponseEntity<?> response = journalController.deleteJournalById(new ObjectId(journal.getId()));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNull(mongoTemplate.findById(journal.getId(), JournalModel.class));
+    }
+
+    @Test
+    void deleteOfJournalChangedSinceItWasReadIsAConflict() {
+        JournalModel journal = insertJournal(owner);
+        // Another request, on its own thread and outside this delete's transaction, updates the entry after
+        // the delete read it and before it removes it.
+        doAnswer(invocation -> {
+            CompletableFuture.runAsync(() -> mongoTemplate.updateFirst(
+                    Query.query(Criteria.where("_id").is(new ObjectId(journal.getId()))),
+                    new Update().set("title", "changed concurrently").inc("version", 1), JournalModel.class)).join();
+            return invocation.callRealMethod();
+        }).when(userServices).findByUserName(anyString());
+
+        ResponseEntity<?> response = journalController.deleteJournalById(new ObjectId(journal.getId()));
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        JournalModel stored = mongoTemplate.findById(journal.getId(), JournalModel.class);
+        assertNotNull(stored);
+        assertEquals("changed concurrently", stored.getTitle());
+    }
+
+    @Test
+    void deleteOfMissingJournalIsNotFound() {
+        ResponseEntity<?> response = journalController.deleteJournalById(new ObjectId());
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    void deleteOfAnotherUsersJournalIsRefused() {
+        JournalModel journal = insertJournal(owner);
+        authenticate("someone-else");
+
+        ResponseEntity<?> response = journalController.deleteJournalById(new ObjectId(journal.getId()));
+
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+        assertNotNull(mongoTemplate.findById(journal.getId(), JournalModel.class));
+    }
+
+    private UserModel insertUser(String userName) {
+        UserModel user = new UserModel();
+        user.setUserName(userName);
+        user.setPassword("{noop}unused");
+        user.setRoles(Collections.singletonList("USER"));
+        return mongoTemplate.insert(user);
+    }
+
+    private JournalModel insertJournal(UserModel user) {
+        return mongoTemplate.insert(JournalModel.builder()
+                .title("title")
+                .content("content")
+                .journal_category("work")
+                .ownerId(user.getId())
+                .build());
+    }
+
+    private static void authenticate(String userName) {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(userName, null, "ROLE_USER"));
+    }
+}
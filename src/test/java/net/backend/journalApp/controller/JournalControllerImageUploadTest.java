@@ -0,0 +1,130 @@
+package net.backend.journalApp.controller;
+
+import net.backend.journalApp.model.JournalModel;
+import net.backend.journalApp.model.StagedImage;
+import net.backend.journalApp.model.UserModel;
+import net.backend.journalApp.services.ImageUploadPipeline;
+import net.backend.journalApp.services.JournalServices;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.TransactionSystemException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+
+/**
+ * A write that throws after its image was staged must give the staging file and the upload slot back.
+ * The pool is sized to two slots, so a leak shows up as 503s after a couple of failed writes.
+ */
+@SpringBootTest(properties = {
+        "image.upload.async.enabled=true",
+        "image.upload.async.workers=1",
+        "image.upload.async.queue-capacity=1"
+})
+@ActiveProfiles("test")
+class JournalControllerImageUploadTest {
+
+    private static final int SLOTS = 2;
+
+    @Autowired
+    private JournalController journalController;
+
+    @Autowired
+    private ImageUploadPipeline imageUploadPipeline;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @SpyBean
+    private JournalServices journalServices;
+
+    @Value("${image.upload.staging-dir}")
+    private String stagingDir;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.remove(new Query(), UserModel.class);
+        UserModel user = new UserModel();
+        user.setUserName("writer");
+        user.setPassword("{noop}unused");
+        user.setRoles(Collections.singletonList("USER"));
+        mongoTemplate.insert(user);
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("writer", null, "ROLE_USER"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void createThatThrowsReleasesTheStagedImage() throws IOException {
+        doThrow(new TransactionSystemException("commit failed"))
+                .when(journalServices).saveJournalEntries(any(), anyString(), any());
+        long stagedBefore = stagedFiles();
+
+        for (int i = 0; i < SLOTS + 1; i++) {
+            assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,
+                    journalController.createEntry(image(), JournalModel.builder().title("entry").build()).getStatusCode());
+        }
+
+        assertEquals(stagedBefore, stagedFiles());
+        assertAllSlotsFree();
+    }
+
+    @Test
+    void updateThatThrowsReleasesTheStagedImage() throws IOException {
+        doThrow(new OptimisticLockingFailureException("stale"))
+                .when(journalServices).updateJournalEntry(any(), any(), anyString(), any());
+        long stagedBefore = stagedFiles();
+
+        for (int i = 0; i < SLOTS + 1; i++) {
+            assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, journalController.updateJournalEntry(
+                    new ObjectId(), image(), JournalModel.builder().title("entry").build()).getStatusCode());
+        }
+
+        assertEquals(stagedBefore, stagedFiles());
+        assertAllSlotsFree();
+    }
+
+    // Every slot can be taken again; stage() answers 503 if any is still held.
+    private void assertAllSlotsFree() throws IOException {
+        StagedImage first = imageUploadPipeline.stage(image());
+        StagedImage second = imageUploadPipeline.stage(image());
+        imageUploadPipeline.discard(first);
+        imageUploadPipeline.discard(second);
+    }
+
+    private long stagedFiles() throws IOException {
+        try (Stream<?> files = Files.list(Paths.get(stagingDir))) {
+            return files.count();
+        }
+    }
+
+    private static MockMultipartFile image() {
+        return new MockMultipartFile("image", "photo.jpg", "image/jpeg", "not really a jpeg".getBytes(StandardCharsets.UTF_8));
+    }
+}
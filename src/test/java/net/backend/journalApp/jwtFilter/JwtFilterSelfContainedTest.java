@@ -0,0 +1,100 @@
+package net.backend.journalApp.jwtFilter;
+
+import net.backend.journalApp.model.UserModel;
+import net.backend.journalApp.services.UserServices;
+import net.backend.journalApp.utils.JwtUtil;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Revocation of self-contained tokens, which is tracked per user id rather than per name.
+ */
+@SpringBootTest(properties = "jwt.self-contained.enabled=true")
+@ActiveProfiles("test")
+class JwtFilterSelfContainedTest {
+
+    @Autowired
+    private JwtFilter jwtFilter;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private UserServices userServices;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.remove(new Query(), UserModel.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void deletedUsersTokenDoesNotCarryOverToANewUserOfTheSameName() throws Exception {
+        UserModel first = insertUser("alice");
+        String firstToken = jwtUtil.generateToken(first);
+        userServices.deleteUserById(new ObjectId(first.getId()));
+
+        UserModel second = insertUser("alice");
+        String secondToken = jwtUtil.generateToken(second);
+
+        assertNull(authenticate(firstToken));
+        Authentication authenticated = authenticate(secondToken);
+        assertNotNull(authenticated);
+        assertEquals("alice", authenticated.getName());
+    }
+
+    @Test
+    void renameRevokesTokensIssuedUnderThePreviousName() throws Exception {
+        UserModel user = insertUser("bob");
+        String oldToken = jwtUtil.generateToken(user);
+
+        userServices.updateUserDetails(new ObjectId(user.getId()), "robert", null);
+
+        assertNull(authenticate(oldToken));
+        UserModel renamed = mongoTemplate.findById(user.getId(), UserModel.class);
+        assertNotNull(authenticate(jwtUtil.generateToken(renamed)));
+    }
+
+    private Authentication authenticate(String token) throws ServletException, IOException {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/journal");
+        request.addHeader("Authorization", "Bearer " + token);
+        jwtFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private UserModel insertUser(String userName) {
+        UserModel user = new UserModel();
+        user.setUserName(userName);
+        user.setPassword("{noop}unused");
+        user.setRoles(Collections.singletonList("USER"));
+        return mongoTemplate.insert(user);
+    }
+}
@@ -0,0 +1,89 @@
+package net.backend.journalApp.migration;
+
+import com.mongodb.DBRef;
+import net.backend.journalApp.model.JournalModel;
+import net.backend.journalApp.model.UserModel;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Runs the ownership backfill against embedded Mongo on users written in the legacy shape.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class JournalOwnerBackfillJobTest {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private JournalOwnerBackfillJob job;
+
+    private String userCollection;
+
+    private String journalCollection;
+
+    @BeforeEach
+    void clean() {
+        userCollection = mongoTemplate.getCollectionName(UserModel.class);
+        journalCollection = mongoTemplate.getCollectionName(JournalModel.class);
+        mongoTemplate.remove(new Query(), userCollection);
+        mongoTemplate.remove(new Query(), journalCollection);
+    }
+
+    @Test
+    void usersWithOnlyEmptyArraysDoNotQueueAnEmptyJournalBulk() {
+        for (int i = 0; i < 3; i++) {
+            mongoTemplate.insert(legacyUser("empty-" + i).append("journalEntries", Collections.emptyList()), userCollection);
+        }
+
+        assertDoesNotThrow(() -> job.run(null));
+
+        for (Document user : mongoTemplate.findAll(Document.class, userCollection)) {
+            assertFalse(user.containsKey("journalEntries"), "legacy array left on " + user.getString("userName"));
+        }
+    }
+
+    @Test
+    void referencedJournalsGetTheirOwner() {
+        ObjectId first = new ObjectId();
+        ObjectId second = new ObjectId();
+        mongoTemplate.insert(new Document("_id", first).append("title", "first"), journalCollection);
+        mongoTemplate.insert(new Document("_id", second).append("title", "second"), journalCollection);
+        Document owner = legacyUser("owner").append("journalEntries",
+                Arrays.asList(new DBRef(journalCollection, first), new DBRef(journalCollection, second)));
+        mongoTemplate.insert(owner, userCollection);
+        mongoTemplate.insert(legacyUser("no-journals").append("journalEntries", Collections.emptyList()), userCollection);
+
+        job.run(null);
+
+        String ownerId = owner.getObjectId("_id").toHexString();
+        for (Document journal : mongoTemplate.findAll(Document.class, journalCollection)) {
+            assertEquals(ownerId, journal.getString("ownerId"));
+        }
+        assertEquals(0, mongoTemplate.count(Query.query(
+                Criteria.where("journalEntries").exists(true)), userCollection));
+    }
+
+    private static Document legacyUser(String userName) {
+        return new Document("_id", new ObjectId())
+                .append("userName", userName)
+                .append("password", "{noop}unused")
+                .append("roles", Collections.singletonList("USER"));
+    }
+}
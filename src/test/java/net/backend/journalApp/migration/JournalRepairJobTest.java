@@ -0,0 +1,102 @@
+package net.backend.journalApp.migration;
+
+import net.backend.journalApp.model.CategoryCountModel;
+import net.backend.journalApp.model.JournalModel;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The repair sweep in the atomic write mode: one instance at a time, and counters corrected by delta.
+ */
+@SpringBootTest(properties = "journal.write-mode=atomic")
+@ActiveProfiles("test")
+class JournalRepairJobTest {
+
+    private static final String LOCKS = "job_locks";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private JournalRepairJob job;
+
+    private String journalCollection;
+
+    @BeforeEach
+    void clean() {
+        journalCollection = mongoTemplate.getCollectionName(JournalModel.class);
+        mongoTemplate.remove(new Query(), journalCollection);
+        mongoTemplate.remove(new Query(), CategoryCountModel.class);
+        mongoTemplate.remove(new Query(), LOCKS);
+    }
+
+    @Test
+    void skipsWhileAnotherInstanceHoldsTheLease() {
+        ObjectId id = insertJournal("owner", "work");
+        mongoTemplate.insert(new Document("_id", "journal-repair")
+                .append("lockedUntil", new Date(System.currentTimeMillis() + 60000))
+                .append("lockedAt", new Date())
+                .append("lockedBy", "another-instance"), LOCKS);
+
+        assertFalse(job.repair());
+        assertFalse(journal(id).containsKey("version"));
+
+        mongoTemplate.remove(new Query(), LOCKS); // The other instance's lease ends.
+        assertTrue(job.repair());
+        assertEquals(0L, ((Number) journal(id).get("version")).longValue());
+    }
+
+    @Test
+    void correctsDriftedCountersAndDropsUnusedOnes() {
+        insertJournal("owner", "work");
+        insertJournal("owner", "work");
+        insertCounter("owner", "work", 5);
+        insertCounter(CategoryCountModel.ALL_USERS, "work", 2); // Already right: left untouched.
+        insertCounter("owner", "travel", 3); // No journal in this category any more.
+
+        assertTrue(job.repair());
+
+        assertEquals(2, counter("owner", "work").getCount());
+        assertEquals(0, counter(CategoryCountModel.ALL_USERS, "work").getReconciledAt());
+        assertNull(counter("owner", "travel"));
+    }
+
+    private ObjectId insertJournal(String ownerId, String category) {
+        ObjectId id = new ObjectId();
+        // Written raw, as a journal from before versioning: a mapped insert would add the version.
+        mongoTemplate.insert(new Document("_id", id).append("title", "title").append("ownerId", ownerId)
+                .append("journal_category", category), journalCollection);
+        return id;
+    }
+
+    private Document journal(ObjectId id) {
+        return mongoTemplate.findById(id, Document.class, journalCollection);
+    }
+
+    private void insertCounter(String ownerId, String category, long count) {
+        CategoryCountModel counter = new CategoryCountModel();
+        counter.setId(ownerId + "|" + category);
+        counter.setOwnerId(ownerId);
+        counter.setCategory(category);
+        counter.setCount(count);
+        mongoTemplate.insert(counter);
+    }
+
+    private CategoryCountModel counter(String ownerId, String category) {
+        return mongoTemplate.findById(ownerId + "|" + category, CategoryCountModel.class);
+    }
+}
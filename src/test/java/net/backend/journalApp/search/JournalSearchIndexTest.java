@@ -0,0 +1,92 @@
+package net.backend.journalApp.search;
+
+import net.backend.journalApp.model.JournalModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Index maintenance on writes, without the startup build.
+ */
+class JournalSearchIndexTest {
+
+    private JournalSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new JournalSearchIndex();
+        ReflectionTestUtils.setField(index, "enabled", true);
+    }
+
+    @Test
+    void reindexesFromThePreviousText() {
+        JournalModel created = journal("a", "mountain hike", "snow everywhere", 0L);
+        index.index(created, null);
+        JournalModel updated = journal("a", "beach walk", "sunny", 1L);
+        index.index(updated, created);
+
+        assertEquals(0, index.search("mountain snow", 0, 10).getTotal());
+        assertEquals(Collections.singletonList("a"), index.search("beach", 0, 10).getIds());
+        assertEquals(3, postings().size()); // beach, walk, sunny; nothing left behind.
+    }
+
+    @Test
+    void scansThePostingsWhenThePreviousTextIsNotWhatWasIndexed() {
+        index.index(journal("a", "mountain hike", "snow", 0L), null);
+        index.index(journal("a", "lake swim", "cold", 1L), journal("a", "unrelated", "text", 5L));
+
+        assertEquals(0, index.search("mountain hike snow", 0, 10).getTotal());
+        assertEquals(Collections.singletonList("a"), index.search("lake", 0, 10).getIds());
+    }
+
+    @Test
+    void ignoresAnOlderVersionIndexedLate() {
+        JournalModel v1 = journal("a", "first draft", "", 1L);
+        index.index(journal("a", "second draft", "", 2L), v1);
+        index.index(v1, journal("a", "original", "", 0L));
+
+        assertEquals(0, index.search("first", 0, 10).getTotal());
+        assertEquals(1, index.search("second", 0, 10).getTotal());
+    }
+
+    @Test
+    void removesADeletedEntry() {
+        JournalModel journal = journal("a", "garden notes", "tomatoes", 3L);
+        index.index(journal, null);
+        index.remove(journal);
+
+        assertEquals(0, index.search("garden tomatoes", 0, 10).getTotal());
+        assertTrue(postings().isEmpty());
+    }
+
+    @Test
+    void returnsAnEmptyPagePastTheLastMatch() {
+        for (String id : Arrays.asList("a", "b", "c")) {
+            index.index(journal(id, "river trip", "", 0L), null);
+        }
+
+        SearchHits last = index.search("river", 1, 2);
+        assertEquals(1, last.getIds().size());
+        assertEquals(3, last.getTotal());
+
+        SearchHits past = index.search("river", 5, 2);
+        assertTrue(past.getIds().isEmpty());
+        assertEquals(3, past.getTotal());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Map<String, Integer>> postings() {
+        return (Map<String, Map<String, Integer>>) ReflectionTestUtils.getField(index, "postings");
+    }
+
+    private static JournalModel journal(String id, String title, String content, Long version) {
+        return JournalModel.builder().id(id).title(title).content(content).version(version).build();
+    }
+}
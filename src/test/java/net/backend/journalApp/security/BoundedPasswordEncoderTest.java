@@ -0,0 +1,104 @@
+package net.backend.journalApp.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Capacity behaviour of the bounded pool, with a delegate that holds its thread until released.
+ */
+class BoundedPasswordEncoderTest {
+
+    private final CountDownLatch started = new CountDownLatch(1);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private BoundedPasswordEncoder encoder;
+
+    @BeforeEach
+    void setUp() {
+        encoder = new BoundedPasswordEncoder(new BlockingEncoder(), 1, 1, 5000, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.shutdown();
+    }
+
+    @Test
+    void asksForARehashWhileAThreadIsIdle() {
+        assertTrue(encoder.upgradeEncoding("old-cost-hash"));
+    }
+
+    @Test
+    void skipsTheRehashWhileThePoolIsBusy() throws Exception {
+        CompletableFuture<Boolean> login = CompletableFuture.supplyAsync(() -> encoder.matches("password", "hash"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertFalse(encoder.upgradeEncoding("old-cost-hash"));
+
+        release.countDown();
+        assertTrue(login.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void rejectsWorkBeyondTheQueue() throws Exception {
+        CompletableFuture.runAsync(() -> encoder.matches("password", "hash"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture.runAsync(() -> encoder.matches("password", "hash")); // Takes the only queue slot.
+        awaitQueueFull();
+
+        assertThrows(HashingCapacityExceededException.class, () -> encoder.encode("password"));
+    }
+
+    private void awaitQueueFull() throws InterruptedException {
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(encoder, "executor");
+        long deadline = System.currentTimeMillis() + 5000;
+        while (executor.getQueue().remainingCapacity() > 0) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("The second task was never queued");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Holds the hashing thread in matches() until the test releases it, and always asks for a rehash.
+     */
+    private class BlockingEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return "hash";
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            started.countDown();
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package net.backend.journalApp.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Metadata removal on hand-built files, with the GPS block and comments standing in for real camera output.
+ */
+class ImageMetadataStripperTest {
+
+    static final String SECRET = "GPS 52.5200N 13.4050E";
+
+    private Path stagingDir;
+
+    private ImageMetadataStripper stripper;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stagingDir = Files.createTempDirectory("strip-test");
+        ImageStagingService stagingService = new ImageStagingService();
+        ReflectionTestUtils.setField(stagingService, "stagingDir", stagingDir.toString());
+        stagingService.init();
+        stripper = new ImageMetadataStripper();
+        ReflectionTestUtils.setField(stripper, "stagingService", stagingService);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(stagingDir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(stagingDir);
+    }
+
+    @Test
+    void dropsJpegMetadataButKeepsPixelsAndOrientation() throws IOException {
+        byte[] jpeg = jpegWithExif(6);
+        byte[] stripped = Files.readAllBytes(stripper.strip(write(jpeg)));
+
+        assertFalse(contains(stripped, SECRET));
+        assertFalse(contains(stripped, "holiday comment"));
+        assertEquals(6, ImageVariantService.orientationFromExif(app1Of(stripped)));
+        assertPixelsEqual(jpeg, stripped);
+    }
+
+    @Test
+    void writesNoExifForAnUprightJpeg() throws IOException {
+        byte[] stripped = Files.readAllBytes(stripper.strip(write(jpegWithExif(1))));
+
+        assertFalse(contains(stripped, "Exif"));
+        assertFalse(contains(stripped, SECRET));
+    }
+
+    @Test
+    void dropsPngTextChunks() throws IOException {
+        byte[] png = pngWithText();
+        byte[] stripped = Files.readAllBytes(stripper.strip(write(png)));
+
+        assertFalse(contains(stripped, SECRET));
+        assertTrue(stripped.length < png.length);
+        assertPixelsEqual(png, stripped);
+    }
+
+    @Test
+    void leavesOtherFormatsAlone() throws IOException {
+        assertNull(stripper.strip(write("GIF89a-not-really".getBytes(StandardCharsets.US_ASCII))));
+    }
+
+    @Test
+    void rejectsATruncatedJpegAndCleansUp() throws IOException {
+        byte[] jpeg = jpegWithExif(6);
+        Path truncated = write(Arrays.copyOf(jpeg, 30)); // Ends inside the EXIF segment.
+
+        assertThrows(IOException.class, () -> stripper.strip(truncated));
+        try (Stream<Path> files = Files.list(stagingDir)) {
+            assertEquals(1, files.count()); // Only the input is left.
+        }
+    }
+
+    /**
+     * A small JPEG with an EXIF block holding the orientation and a GPS stand-in, and a comment segment.
+     */
+    static byte[] jpegWithExif(int orientation) throws IOException {
+        byte[] plain = encode("jpeg");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.write(plain, 0, 2); // SOI
+
+        byte[] secret = SECRET.getBytes(StandardCharsets.US_ASCII);
+        out.writeShort(0xFFE1);
+        out.writeShort(2 + 32 + secret.length);
+        out.write("Exif\0\0".getBytes(StandardCharsets.US_ASCII));
+        out.write(new byte[] {'M', 'M', 0, 42});
+        out.writeInt(8);
+        out.writeShort(1);
+        out.writeShort(0x0112);
+        out.writeShort(3);
+        out.writeInt(1);
+        out.writeShort(orientation);
+        out.writeShort(0);
+        out.writeInt(0);
+        out.write(secret);
+
+        byte[] comment = "holiday comment".getBytes(StandardCharsets.US_ASCII);
+        out.writeShort(0xFFFE);
+        out.writeShort(2 + comment.length);
+        out.write(comment);
+
+        out.write(plain, 2, plain.length - 2);
+        return bytes.toByteArray();
+    }
+
+    private static byte[] pngWithText() throws IOException {
+        byte[] plain = encode("png");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        int afterHeader = 8 + 12 + 13; // Signature and IHDR.
+        out.write(plain, 0, afterHeader);
+
+        byte[] chunk = ("tEXtLocation\0" + SECRET).getBytes(StandardCharsets.ISO_8859_1);
+        CRC32 crc = new CRC32();
+        crc.update(chunk);
+        out.writeInt(chunk.length - 4);
+        out.write(chunk);
+        out.writeInt((int) crc.getValue());
+
+        out.write(plain, afterHeader, plain.length - afterHeader);
+        return bytes.toByteArray();
+    }
+
+    private static byte[] encode(String format) throws IOException {
+        BufferedImage image = new BufferedImage(64, 48, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, (x * 4) << 16 | (y * 5) << 8 | (x + y));
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+
+    private Path write(byte[] content) throws IOException {
+        return Files.write(stagingDir.resolve("input"), content);
+    }
+
+    static boolean contains(byte[] haystack, String needle) {
+        return new String(haystack, StandardCharsets.ISO_8859_1).contains(needle);
+    }
+
+    private static byte[] app1Of(byte[] jpeg) {
+        int offset = 2;
+        while ((jpeg[offset + 1] & 0xFF) != 0xE1) {
+            offset += 2 + ((jpeg[offset + 2] & 0xFF) << 8 | jpeg[offset + 3] & 0xFF);
+        }
+        int length = (jpeg[offset + 2] & 0xFF) << 8 | jpeg[offset + 3] & 0xFF;
+        return Arrays.copyOfRange(jpeg, offset + 4, offset + 2 + length);
+    }
+
+    private static void assertPixelsEqual(byte[] expected, byte[] actual) throws IOException {
+        BufferedImage a = ImageIO.read(new ByteArrayInputStream(expected));
+        BufferedImage b = ImageIO.read(new ByteArrayInputStream(actual));
+        assertEquals(a.getWidth(), b.getWidth());
+        assertEquals(a.getHeight(), b.getHeight());
+        assertArrayEquals(a.getRGB(0, 0, a.getWidth(), a.getHeight(), null, 0, a.getWidth()),
+                b.getRGB(0, 0, b.getWidth(), b.getHeight(), null, 0, b.getWidth()));
+    }
+}
@@ -0,0 +1,115 @@
+package net.backend.journalApp.services;
+
+import net.backend.journalApp.model.ImageHashModel;
+import net.backend.journalApp.model.StagedImage;
+import net.backend.journalApp.model.UploadedImage;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Content deduplication across the synchronous path, which makes no variants, and the background path, which does,
+ * and what is stored for the original.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ImageUploadPipelineTest {
+
+    @Autowired
+    private ImageUploadPipeline imageUploadPipeline;
+
+    @Autowired
+    private ImageStagingService stagingService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${image.upload.local.dir}")
+    private String uploadDir;
+
+    @Test
+    void backgroundUploadAddsVariantsToContentFirstStoredWithout() throws IOException {
+        MockMultipartFile file = png();
+
+        UploadedImage direct = imageUploadPipeline.uploadNow(file);
+        assertTrue(direct.getVariants().isEmpty());
+
+        UploadedImage background = processInBackground(file);
+        assertEquals(direct.getUrl(), background.getUrl()); // The original is not uploaded again.
+        assertFalse(background.getVariants().isEmpty());
+
+        ImageHashModel indexed = mongoTemplate.findById(sha256Of(file), ImageHashModel.class);
+        assertNotNull(indexed);
+        assertEquals(background.getVariants(), indexed.getVariants());
+        assertEquals(background, processInBackground(file)); // Later uploads reuse the completed entry.
+    }
+
+    @Test
+    void synchronousUploadReusesStoredVariants() throws IOException {
+        MockMultipartFile file = png();
+
+        UploadedImage background = processInBackground(file);
+        UploadedImage direct = imageUploadPipeline.uploadNow(file);
+
+        assertEquals(background, direct);
+    }
+
+    @Test
+    void uploadsTheOriginalWithoutItsMetadata() throws IOException {
+        MockMultipartFile file = new MockMultipartFile("image", "photo.jpg", "image/jpeg",
+                ImageMetadataStripperTest.jpegWithExif(6));
+
+        UploadedImage uploaded = imageUploadPipeline.uploadNow(file);
+
+        String name = uploaded.getUrl().substring(uploaded.getUrl().lastIndexOf('/') + 1);
+        byte[] stored = Files.readAllBytes(Paths.get(uploadDir, name));
+        assertFalse(ImageMetadataStripperTest.contains(stored, ImageMetadataStripperTest.SECRET));
+        assertTrue(ImageMetadataStripperTest.contains(stored, "Exif")); // Only the orientation is carried over.
+    }
+
+    private UploadedImage processInBackground(MockMultipartFile file) throws IOException {
+        StagedImage staged = stagingService.stage(file);
+        try {
+            return imageUploadPipeline.process(staged, file.getOriginalFilename(), true);
+        } finally {
+            stagingService.discard(staged);
+        }
+    }
+
+    private String sha256Of(MockMultipartFile file) throws IOException {
+        StagedImage staged = stagingService.stage(file);
+        stagingService.discard(staged);
+        return staged.getSha256();
+    }
+
+    // A small PNG with random pixels, so every test uploads content the dedup index has not seen.
+    private static MockMultipartFile png() throws IOException {
+        BufferedImage image = new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, random.nextInt(0xFFFFFF));
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return new MockMultipartFile("image", "photo.png", "image/png", out.toByteArray());
+    }
+}
@@ -0,0 +1,112 @@
+package net.backend.journalApp.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Variant generation on hand-built files: the pixel limit and the EXIF orientation.
+ */
+class ImageVariantServiceTest {
+
+    private Path stagingDir;
+
+    private ImageVariantService variantService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stagingDir = Files.createTempDirectory("variant-test");
+        ImageStagingService stagingService = new ImageStagingService();
+        ReflectionTestUtils.setField(stagingService, "stagingDir", stagingDir.toString());
+        stagingService.init();
+        variantService = new ImageVariantService();
+        ReflectionTestUtils.setField(variantService, "stagingService", stagingService);
+        ReflectionTestUtils.setField(variantService, "enabled", true);
+        ReflectionTestUtils.setField(variantService, "widths", Collections.singletonMap("thumb", 32));
+        ReflectionTestUtils.setField(variantService, "parallelism", 1);
+        ReflectionTestUtils.setField(variantService, "maxPixels", 1_000_000L);
+        variantService.init();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        variantService.shutdown();
+        try (Stream<Path> files = Files.list(stagingDir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(stagingDir);
+    }
+
+    @Test
+    void rejectsAnImageOverThePixelLimitFromItsHeader() throws IOException {
+        // Declares 100000 x 100000 pixels but holds no image data: only the header may be read.
+        Path bomb = write(pngHeaderOnly(100_000, 100_000));
+
+        IOException e = assertThrows(IOException.class, () -> variantService.generate(bomb));
+        assertTrue(e.getMessage().contains("exceeds the limit"), e.getMessage());
+    }
+
+    @Test
+    void turnsVariantsUprightByTheExifOrientation() throws IOException {
+        // 64 x 48 stored pixels, rotated 90 degrees by its EXIF orientation: 48 x 64 upright.
+        Path rotated = write(ImageMetadataStripperTest.jpegWithExif(6));
+
+        Map<String, Path> variants = variantService.generate(rotated);
+
+        BufferedImage thumb = ImageIO.read(variants.get("thumb").toFile());
+        assertEquals(32, thumb.getWidth());
+        assertEquals(43, thumb.getHeight());
+    }
+
+    @Test
+    void scalesAnUprightImageByItsStoredSize() throws IOException {
+        Path upright = write(ImageMetadataStripperTest.jpegWithExif(1));
+
+        BufferedImage thumb = ImageIO.read(variantService.generate(upright).get("thumb").toFile());
+
+        assertEquals(32, thumb.getWidth());
+        assertEquals(24, thumb.getHeight());
+    }
+
+    private static byte[] pngHeaderOnly(int width, int height) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.write(new byte[] {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'});
+        ByteArrayOutputStream ihdr = new ByteArrayOutputStream();
+        DataOutputStream chunk = new DataOutputStream(ihdr);
+        chunk.write("IHDR".getBytes(StandardCharsets.US_ASCII));
+        chunk.writeInt(width);
+        chunk.writeInt(height);
+        chunk.write(new byte[] {8, 2, 0, 0, 0}); // 8-bit RGB, no interlacing.
+        CRC32 crc = new CRC32();
+        crc.update(ihdr.toByteArray());
+        out.writeInt(13);
+        out.write(ihdr.toByteArray());
+        out.writeInt((int) crc.getValue());
+        return bytes.toByteArray();
+    }
+
+    private Path write(byte[] content) throws IOException {
+        return Files.write(stagingDir.resolve("input"), content);
+    }
+}
@@ -0,0 +1,95 @@
+package net.backend.journalApp.services;
+
+import net.backend.journalApp.model.CategoryCountModel;
+import net.backend.journalApp.model.JournalBatchOperation;
+import net.backend.journalApp.model.JournalBatchResult;
+import net.backend.journalApp.model.JournalModel;
+import net.backend.journalApp.model.UserModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Per-item outcomes of the batch endpoint for malformed items and for deletes that lose a race.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class JournalServicesBatchTest {
+
+    @Autowired
+    private JournalServices journalServices;
+
+    @Autowired
+    private CategoryCounterService categoryCounterService;
+
+    @SpyBean
+    private MongoTemplate mongoTemplate;
+
+    private UserModel user;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.remove(new Query(), UserModel.class);
+        mongoTemplate.remove(new Query(), JournalModel.class);
+        mongoTemplate.remove(new Query(), CategoryCountModel.class);
+        user = new UserModel();
+        user.setUserName("batcher");
+        user.setPassword("{noop}unused");
+        user.setRoles(Collections.singletonList("USER"));
+        user = mongoTemplate.insert(user);
+    }
+
+    @Test
+    void nullItemIsRejectedOnItsOwn() {
+        List<JournalBatchResult> results = journalServices.applyBatch("batcher", Arrays.asList(create("kept"), null));
+
+        assertEquals(201, results.get(0).getStatus());
+        assertNotNull(mongoTemplate.findById(results.get(0).getId(), JournalModel.class));
+        assertEquals(400, results.get(1).getStatus());
+        assertNull(results.get(1).getId());
+    }
+
+    @Test
+    void deleteThatMatchedNothingIsNotFoundAndLeavesTheCountersAlone() {
+        String id = journalServices.applyBatch("batcher", Collections.singletonList(create("doomed"))).get(0).getId();
+        assertEquals(Long.valueOf(1), categoryCounterService.getCounts(user.getId()).get("work"));
+
+        // A concurrent delete removes the entry (and accounts for it) between the batch's read and its delete.
+        doAnswer(invocation -> {
+            invocation.callRealMethod();
+            return invocation.callRealMethod();
+        }).when(mongoTemplate).remove(any(Query.class), eq(JournalModel.class));
+
+        JournalBatchOperation delete = new JournalBatchOperation();
+        delete.setOp(JournalBatchOperation.Type.DELETE);
+        delete.setId(id);
+        List<JournalBatchResult> results = journalServices.applyBatch("batcher", Collections.singletonList(delete));
+
+        assertEquals(404, results.get(0).getStatus());
+        assertEquals(Long.valueOf(1), categoryCounterService.getCounts(user.getId()).get("work"));
+    }
+
+    private static JournalBatchOperation create(String title) {
+        JournalBatchOperation operation = new JournalBatchOperation();
+        operation.setOp(JournalBatchOperation.Type.CREATE);
+        operation.setTitle(title);
+        operation.setJournal_category("work");
+        return operation;
+    }
+}
@@ -0,0 +1,82 @@
+package net.backend.journalApp.services;
+
+import net.backend.journalApp.model.JournalModel;
+import net.backend.journalApp.model.JournalPatch;
+import net.backend.journalApp.model.UserModel;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * PATCH authorization when a user name changes hands: the owner is resolved afresh on every request.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class JournalServicesPatchTest {
+
+    @Autowired
+    private JournalServices journalServices;
+
+    @Autowired
+    private UserServices userServices;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private UserModel owner;
+
+    private JournalModel journal;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.remove(new Query(), UserModel.class);
+        mongoTemplate.remove(new Query(), JournalModel.class);
+        owner = insertUser("carol");
+        journal = mongoTemplate.insert(JournalModel.builder().title("title").ownerId(owner.getId()).version(0L).build());
+        assertEquals(HttpStatus.OK, patch("carol", "first").getStatusCode()); // Resolves "carol" once.
+    }
+
+    @Test
+    void newUserOfADeletedNameCannotPatchThePreviousOwnersJournal() {
+        userServices.deleteUserById(new ObjectId(owner.getId()));
+        insertUser("carol");
+
+        assertEquals(HttpStatus.UNAUTHORIZED, patch("carol", "taken over").getStatusCode());
+        assertEquals("first", mongoTemplate.findById(journal.getId(), JournalModel.class).getTitle());
+    }
+
+    @Test
+    void renamedOwnerKeepsAccessAndTheFreedNameDoesNot() {
+        userServices.updateUserDetails(new ObjectId(owner.getId()), "caroline", null);
+        insertUser("carol");
+
+        assertEquals(HttpStatus.UNAUTHORIZED, patch("carol", "taken over").getStatusCode());
+        assertEquals(HttpStatus.OK, patch("caroline", "second").getStatusCode());
+        assertEquals("second", mongoTemplate.findById(journal.getId(), JournalModel.class).getTitle());
+    }
+
+    private ResponseEntity<?> patch(String userName, String title) {
+        JournalPatch patch = new JournalPatch();
+        patch.setTitle(title);
+        return journalServices.patchJournalEntry(new ObjectId(journal.getId()), patch, userName);
+    }
+
+    private UserModel insertUser(String userName) {
+        UserModel user = new UserModel();
+        user.setUserName(userName);
+        user.setPassword("{noop}unused");
+        user.setRoles(Collections.singletonList("USER"));
+        return mongoTemplate.insert(user);
+    }
+}
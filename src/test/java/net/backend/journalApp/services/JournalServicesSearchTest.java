@@ -0,0 +1,69 @@
+package net.backend.journalApp.services;
+
+import net.backend.journalApp.model.JournalModel;
+import net.backend.journalApp.model.SearchResultPage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Searching the database while the in-memory index is not available (here: disabled, so never built).
+ */
+@SpringBootTest(properties = "journal.search.enabled=false")
+@ActiveProfiles("test")
+class JournalServicesSearchTest {
+
+    @Autowired
+    private JournalServices journalServices;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.remove(new Query(), JournalModel.class);
+        LocalDateTime now = LocalDateTime.now();
+        insert("Mountain hike", "Snow at the top", now.minusDays(2));
+        insert("Lake swim", "The MOUNTAIN lake was cold", now.minusDays(1));
+        insert("Shopping", "Bread and (mountain) cheese?", now);
+        insert("Office", "Nothing about hills", now);
+    }
+
+    @Test
+    void matchesEveryTermInTitleOrContentNewestFirst() {
+        SearchResultPage page = journalServices.searchJournals("mountain", 0, 2);
+
+        assertEquals(3, page.getTotal());
+        assertEquals(2, page.getItems().size());
+        assertEquals("Shopping", page.getItems().get(0).getTitle());
+        assertEquals("Lake swim", page.getItems().get(1).getTitle());
+
+        SearchResultPage both = journalServices.searchJournals("mountain snow", 0, 10);
+        assertEquals(1, both.getTotal());
+        assertEquals("Mountain hike", both.getItems().get(0).getTitle());
+    }
+
+    @Test
+    void returnsAnEmptyPagePastTheLastMatchOrWithoutTerms() {
+        SearchResultPage past = journalServices.searchJournals("mountain", 5, 2);
+        assertTrue(past.getItems().isEmpty());
+        assertEquals(3, past.getTotal());
+
+        SearchResultPage stopWordsOnly = journalServices.searchJournals("the and", 0, 10);
+        assertTrue(stopWordsOnly.getItems().isEmpty());
+        assertEquals(0, stopWordsOnly.getTotal());
+    }
+
+    private void insert(String title, String content, LocalDateTime updatedAt) {
+        mongoTemplate.insert(JournalModel.builder().title(title).content(content).updatedAt(updatedAt).build());
+    }
+}
@@ -0,0 +1,68 @@
+package net.backend.journalApp.services;
+
+import net.backend.journalApp.model.UserModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The rehash stored on login replaces only the hash the login was verified against.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class UserDetailsServiceImplTest {
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.remove(new Query(), UserModel.class);
+        UserModel user = new UserModel();
+        user.setUserName("rehashed");
+        user.setPassword("verified-hash");
+        user.setRoles(Collections.singletonList("USER"));
+        mongoTemplate.insert(user);
+        userDetailsService.evict("rehashed");
+    }
+
+    @Test
+    void storesTheRehashOfTheVerifiedHash() {
+        UserDetails verified = userDetailsService.loadUserByUsername("rehashed");
+
+        UserDetails updated = userDetailsService.updatePassword(verified, "rehash");
+
+        assertEquals("rehash", updated.getPassword());
+        assertEquals("rehash", storedPassword());
+    }
+
+    @Test
+    void keepsAPasswordChangedSinceTheLogin() {
+        UserDetails verified = userDetailsService.loadUserByUsername("rehashed");
+        mongoTemplate.updateFirst(Query.query(Criteria.where("userName").is("rehashed")),
+                Update.update("password", "changed-hash"), UserModel.class);
+
+        UserDetails updated = userDetailsService.updatePassword(verified, "rehash-of-old-password");
+
+        assertEquals("verified-hash", updated.getPassword());
+        assertEquals("changed-hash", storedPassword());
+    }
+
+    private String storedPassword() {
+        return mongoTemplate.findOne(Query.query(Criteria.where("userName").is("rehashed")), UserModel.class).getPassword();
+    }
+}